@@ -48,11 +48,16 @@ export default function ChatPage() {
     );
     if (!unread.length) return;
 
+    // Один запрос "прочитано до" на собеседника вместо вызова на каждое сообщение
+    const upToBySender = new Map<number, number>();
     for (const msg of unread) {
-      const sent = publishWs("/app/chat.read", { messageId: msg.id });
+      upToBySender.set(msg.senderId, Math.max(upToBySender.get(msg.senderId) ?? 0, msg.id));
+    }
+    for (const [peerId, upToMessageId] of upToBySender) {
+      const sent = publishWs("/app/chat.readUpTo", { peerId, upToMessageId });
       if (!sent) {
         try {
-          await api.post(`/chat/read/${msg.id}`);
+          await api.post(`/chat/conversation/${peerId}/read`, { upToMessageId });
         } catch {
           // ignore
         }
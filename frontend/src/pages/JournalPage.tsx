@@ -38,7 +38,7 @@ export default function JournalPage() {
 
   const search = async () => {
     if (!searchTag) return;
-    const result = await api.get<any[]>(`/journal/search?tag=${encodeURIComponent(searchTag)}`);
+    const result = await api.get<any[]>(`/journal/search?tag=${encodeURIComponent(searchTag)}&includeContent=true`);
     setEntries(result);
   };
 
@@ -0,0 +1,140 @@
+package com.psychology.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сравнивает результат JMH (-rf json) с сохраненным baseline.
+ * Регрессией считается ухудшение больше допуска: рост времени для avgt/sample/ss,
+ * падение пропускной способности для thrpt. Бенчмарк без записи в baseline выводится
+ * как MISSING с предупреждением; в режиме strict он валит проверку — так новый или
+ * переименованный бенчмарк не выпадет молча из контроля, когда baseline уже заполнен.
+ *
+ * Обновление baseline на эталонной машине:
+ * ./mvnw -Pbenchmark verify -DskipTests -Djmh.baseline.mode=update
+ * (результаты текущего прогона дописываются в src/jmh/baseline.json поверх прежних).
+ */
+public final class BaselineCheck {
+
+    private BaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineCheck <jmh-result.json> <baseline.json> [tolerance] [check|strict|update]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.15;
+        String mode = args.length > 3 ? args[3] : "check";
+        boolean update = "update".equals(mode);
+        boolean strict = "strict".equals(mode);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        File resultFile = new File(args[0]);
+        File baselineFile = new File(args[1]);
+        if (update) {
+            updateBaseline(objectMapper, resultFile, baselineFile);
+            return;
+        }
+
+        Map<String, Score> current = read(objectMapper, resultFile);
+        Map<String, Score> baseline = baselineFile.exists() ? read(objectMapper, baselineFile) : Map.of();
+
+        List<String> regressions = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("MISSING    %-80s %12.3f %s%n", entry.getKey(), now.score(), now.unit());
+                missing.add(entry.getKey());
+                continue;
+            }
+
+            double change = (now.score() - base.score()) / base.score();
+            boolean higherIsBetter = "thrpt".equals(now.mode());
+            boolean regressed = higherIsBetter ? change < -tolerance : change > tolerance;
+            System.out.printf("%-10s %-80s %12.3f -> %12.3f %s (%+.1f%%)%n",
+                    regressed ? "REGRESSION" : "OK", entry.getKey(), base.score(), now.score(), now.unit(),
+                    change * 100);
+            if (regressed) {
+                regressions.add(entry.getKey());
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            System.err.printf("%s: %d benchmark(s) have no baseline entry: %s%n"
+                    + "Record them on the reference machine with -Djmh.baseline.mode=update%n",
+                    strict ? "ERROR" : "WARNING", missing.size(), missing);
+        }
+        if (!regressions.isEmpty()) {
+            System.err.printf("%d benchmark(s) regressed by more than %.0f%%: %s%n",
+                    regressions.size(), tolerance * 100, regressions);
+        }
+        if (!regressions.isEmpty() || (strict && !missing.isEmpty())) {
+            System.exit(1);
+        }
+    }
+
+    // Сохраняет только поля, нужные для сравнения; записи, не попавшие в прогон (-Djmh.include), остаются
+    private static void updateBaseline(ObjectMapper objectMapper, File resultFile, File baselineFile) throws IOException {
+        Map<String, JsonNode> runs = new LinkedHashMap<>();
+        if (baselineFile.exists()) {
+            for (JsonNode run : objectMapper.readTree(baselineFile)) {
+                runs.put(key(run), run);
+            }
+        }
+        for (JsonNode run : objectMapper.readTree(resultFile)) {
+            ObjectNode trimmed = objectMapper.createObjectNode();
+            trimmed.put("benchmark", run.path("benchmark").asText());
+            trimmed.put("mode", run.path("mode").asText());
+            if (run.has("params")) {
+                trimmed.set("params", run.get("params"));
+            }
+            trimmed.put("jdkVersion", run.path("jdkVersion").asText());
+            ObjectNode metric = trimmed.putObject("primaryMetric");
+            metric.put("score", run.path("primaryMetric").path("score").asDouble());
+            metric.put("scoreError", run.path("primaryMetric").path("scoreError").asDouble());
+            metric.put("scoreUnit", run.path("primaryMetric").path("scoreUnit").asText());
+            runs.put(key(run), trimmed);
+        }
+        ArrayNode baseline = objectMapper.createArrayNode();
+        runs.values().forEach(baseline::add);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(baselineFile, baseline);
+        System.out.printf("Baseline %s updated: %d benchmark(s)%n", baselineFile, runs.size());
+    }
+
+    private static Map<String, Score> read(ObjectMapper objectMapper, File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : objectMapper.readTree(file)) {
+            JsonNode metric = run.path("primaryMetric");
+            scores.put(key(run), new Score(run.path("mode").asText(),
+                    metric.path("score").asDouble(), metric.path("scoreUnit").asText()));
+        }
+        return scores;
+    }
+
+    private static String key(JsonNode run) {
+        StringBuilder key = new StringBuilder(run.path("benchmark").asText());
+        Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> param = fields.next();
+            key.append(key.indexOf(":") < 0 ? ":" : ",").append(param.getKey()).append('=')
+                    .append(param.getValue().asText());
+        }
+        return key.toString();
+    }
+
+    private record Score(String mode, double score, String unit) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.psychology.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.psychology.repository.ClientRepository;
+import com.psychology.repository.JournalEntryRepository;
+import com.psychology.repository.JournalMoodDailyRepository;
+import com.psychology.repository.PsychologistRepository;
+import com.psychology.repository.RecommendationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Минимальный JPA-контекст (сущности + нужные репозитории) на локальном PostgreSQL
+ * для бенчмарков путей, которые после переноса в SQL больше нельзя мерить на заглушках.
+ * Нужен Postgres из docker compose и отдельная база (по умолчанию psychology_bench):
+ * схема создается через ddl-auto=update, а данные пользователей очищаются перед прогоном.
+ * Адрес и учетные данные: -Dbenchmark.jdbc.url / .user / .password.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    private final AnnotationConfigApplicationContext context;
+
+    private BenchmarkDatabase(AnnotationConfigApplicationContext context) {
+        this.context = context;
+    }
+
+    static BenchmarkDatabase start() {
+        BenchmarkDatabase database = new BenchmarkDatabase(new AnnotationConfigApplicationContext(JpaConfig.class));
+        // TRUNCATE users каскадно чистит клиентов, психологов и все их данные
+        database.jdbc().execute("TRUNCATE TABLE users RESTART IDENTITY CASCADE");
+        return database;
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    JdbcTemplate jdbc() {
+        return context.getBean(JdbcTemplate.class);
+    }
+
+    TransactionTemplate transactions() {
+        return new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = RecommendationRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
+                    RecommendationRepository.class, ClientRepository.class, PsychologistRepository.class,
+                    JournalEntryRepository.class, JournalMoodDailyRepository.class}))
+    static class JpaConfig {
+
+        @Bean
+        DataSource dataSource() {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                    System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/psychology_bench"),
+                    System.getProperty("benchmark.jdbc.user", "psychology_user"),
+                    System.getProperty("benchmark.jdbc.password", "psychology_pass"));
+            dataSource.setDriverClassName("org.postgresql.Driver");
+            return dataSource;
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan("com.psychology.model.entity");
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaPropertyMap(Map.of(
+                    "hibernate.hbm2ddl.auto", "update",
+                    "hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect"));
+            return factory;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().registerModule(new JavaTimeModule());
+        }
+    }
+}
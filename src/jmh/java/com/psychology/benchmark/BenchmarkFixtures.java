@@ -0,0 +1,149 @@
+package com.psychology.benchmark;
+
+import com.psychology.model.entity.Client;
+import com.psychology.model.entity.JournalEntry;
+import com.psychology.model.entity.Message;
+import com.psychology.model.entity.Psychologist;
+import com.psychology.model.entity.Recommendation;
+import com.psychology.model.entity.Session;
+import com.psychology.model.entity.UserRole;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Детерминированные тестовые данные и заглушки репозиториев для бенчмарков.
+ * Заглушка отвечает только на перечисленные методы, остальные бросают исключение —
+ * так бенчмарк сразу упадет, если сервис начнет ходить в БД иначе.
+ */
+final class BenchmarkFixtures {
+
+    private static final String[] MOODS = {"спокойствие", "тревога", "радость", "усталость", "грусть", ""};
+    private static final String[] TAGS = {"работа", "семья", "сон", "спорт", "учеба", "друзья", "здоровье", "отдых"};
+
+    private BenchmarkFixtures() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R> R stubRepository(Class<R> type, Map<String, Function<Object[], Object>> answers) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + "Stub";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        });
+    }
+
+    static Psychologist psychologist() {
+        Psychologist psychologist = new Psychologist();
+        psychologist.setId(1L);
+        psychologist.setPhone("+79990000001");
+        psychologist.setRole(UserRole.ROLE_PSYCHOLOGIST);
+        psychologist.setFullName("Анна Петрова");
+        psychologist.setEmail("anna@example.com");
+        psychologist.setSpecialization("КПТ");
+        psychologist.setVerified(true);
+        return psychologist;
+    }
+
+    static Client client(Psychologist psychologist) {
+        Client client = new Client();
+        client.setId(2L);
+        client.setPhone("+79990000002");
+        client.setRole(UserRole.ROLE_CLIENT);
+        client.setFullName("Иван Сидоров");
+        client.setAge(30);
+        client.setPsychologist(psychologist);
+        client.setLinkedAt(LocalDateTime.now().minusMonths(3));
+        return client;
+    }
+
+    static List<Message> messages(Psychologist psychologist, Client client, int count) {
+        LocalDateTime start = LocalDateTime.now().minusDays(30);
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Message message = new Message();
+            message.setId((long) i + 1);
+            message.setSender(i % 2 == 0 ? client : psychologist);
+            message.setReceiver(i % 2 == 0 ? psychologist : client);
+            message.setContent("Сообщение номер " + i + ": как прошла неделя, что получилось из плана?");
+            message.setRead(i < count - 10);
+            message.setSentAt(start.plusMinutes(i * 7L));
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    static List<Session> sessions(Psychologist psychologist, Client client, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Session> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Session session = new Session();
+            session.setId((long) i + 1);
+            session.setPsychologist(psychologist);
+            session.setClient(client);
+            session.setScheduledAt(now.plusDays(i + 1));
+            session.setDescription("Сеанс " + (i + 1));
+            sessions.add(session);
+        }
+        return sessions;
+    }
+
+    // Без id: сущности сохраняются в БД (BenchmarkDatabase)
+    static List<Recommendation> recommendations(Psychologist psychologist, Client client, int count) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<Recommendation> recommendations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Recommendation r = new Recommendation();
+            r.setPsychologist(psychologist);
+            r.setClient(client);
+            r.setTitle("Рекомендация " + i);
+            r.setContent("Выполнять упражнение ежедневно");
+            r.setPriority(1 + random.nextInt(5));
+            r.setCompleted(random.nextInt(4) == 0);
+            // Часть без дедлайна, часть просрочена, часть в будущем
+            int deadlineKind = random.nextInt(3);
+            if (deadlineKind > 0) {
+                r.setDeadline(now.plusDays(deadlineKind == 1 ? -random.nextInt(30) - 1 : random.nextInt(30) + 1));
+            }
+            recommendations.add(r);
+        }
+        return recommendations;
+    }
+
+    // createdAt проставляет Hibernate; время записи задается отдельно через entryTime
+    static List<JournalEntry> journalEntries(Client client, int count) {
+        Random random = new Random(7);
+        List<JournalEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            JournalEntry entry = new JournalEntry();
+            entry.setClient(client);
+            entry.setContent("Запись дневника " + i);
+            entry.setMood(MOODS[random.nextInt(MOODS.length)]);
+            List<String> tags = new ArrayList<>();
+            for (int t = 0; t < 1 + random.nextInt(3); t++) {
+                tags.add(TAGS[random.nextInt(TAGS.length)]);
+            }
+            entry.setTags(tags);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    // Четыре записи в день, от текущего момента назад
+    static LocalDateTime entryTime(LocalDateTime now, int index) {
+        return now.minusHours(index * 6L);
+    }
+}
@@ -0,0 +1,53 @@
+package com.psychology.benchmark;
+
+import com.psychology.dto.ChatDTO;
+import com.psychology.model.entity.Client;
+import com.psychology.model.entity.Message;
+import com.psychology.model.entity.Psychologist;
+import com.psychology.service.ChatService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование страницы переписки в DTO (история чата, отправка по WebSocket).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatConversionBenchmark {
+
+    @Param({"50", "200"})
+    private int pageSize;
+
+    private ChatService chatService;
+    private List<Message> messages;
+
+    @Setup
+    public void setUp() {
+        // convertToDTO не обращается к зависимостям сервиса
+        chatService = new ChatService(null, null, null, null, null, null, null);
+        Psychologist psychologist = BenchmarkFixtures.psychologist();
+        Client client = BenchmarkFixtures.client(psychologist);
+        messages = BenchmarkFixtures.messages(psychologist, client, pageSize);
+    }
+
+    @Benchmark
+    public List<ChatDTO.MessageResponse> convertPage() {
+        return messages.stream().map(chatService::convertToDTO).toList();
+    }
+}
@@ -0,0 +1,93 @@
+package com.psychology.benchmark;
+
+import com.psychology.controller.JournalController;
+import com.psychology.model.entity.Client;
+import com.psychology.model.entity.JournalEntry;
+import com.psychology.model.entity.Psychologist;
+import com.psychology.repository.ClientRepository;
+import com.psychology.repository.JournalEntryRepository;
+import com.psychology.repository.JournalMoodDailyRepository;
+import com.psychology.repository.PsychologistRepository;
+import com.psychology.service.JournalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Статистика дневника из дневной сводки journal_mood_daily (записи, записи за месяц,
+ * частое настроение) и топ тегов по journal_entries. Нужна база из BenchmarkDatabase.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalStatsBenchmark {
+
+    @Param({"365", "3000"})
+    private int entryCount;
+
+    private BenchmarkDatabase database;
+    private JournalService journalService;
+    private Long clientId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        JournalEntryRepository journalEntryRepository = database.bean(JournalEntryRepository.class);
+        JournalMoodDailyRepository journalMoodDailyRepository = database.bean(JournalMoodDailyRepository.class);
+        ClientRepository clientRepository = database.bean(ClientRepository.class);
+
+        List<JournalEntry> entries = database.transactions().execute(status -> {
+            Psychologist psychologist = BenchmarkFixtures.psychologist();
+            psychologist.setId(null);
+            psychologist = database.bean(PsychologistRepository.class).save(psychologist);
+            Client client = BenchmarkFixtures.client(psychologist);
+            client.setId(null);
+            client = clientRepository.save(client);
+            return journalEntryRepository.saveAll(BenchmarkFixtures.journalEntries(client, entryCount));
+        });
+        clientId = entries.get(0).getClient().getId();
+
+        // Разносим записи по времени и строим сводку так же, как миграция при первом запуске
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> times = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            times.add(new Object[]{Timestamp.valueOf(BenchmarkFixtures.entryTime(now, i)), entries.get(i).getId()});
+        }
+        database.jdbc().batchUpdate("UPDATE journal_entries SET created_at = ? WHERE id = ?", times);
+        journalMoodDailyRepository.rebuildFromEntries(null);
+        database.jdbc().execute("ANALYZE journal_entries");
+        database.jdbc().execute("ANALYZE journal_mood_daily");
+
+        journalService = new JournalService(journalEntryRepository, clientRepository, null,
+                journalMoodDailyRepository, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public JournalController.JournalStats journalStats() {
+        return journalService.getJournalStats(clientId);
+    }
+}
@@ -0,0 +1,85 @@
+package com.psychology.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.psychology.controller.DashboardController;
+import com.psychology.dto.ChatDTO;
+import com.psychology.model.entity.Client;
+import com.psychology.model.entity.Psychologist;
+import com.psychology.service.ChatService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответов, которые чаще всего уходят клиентам: сообщение чата и дашборд психолога.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    // Те же настройки, что у STOMP-рассылки (ClusterMessagingService)
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private ChatDTO.MessageResponse message;
+    private List<ChatDTO.MessageResponse> messagePage;
+    private DashboardController.PsychologistDashboard dashboard;
+
+    @Setup
+    public void setUp() {
+        Psychologist psychologist = BenchmarkFixtures.psychologist();
+        Client client = BenchmarkFixtures.client(psychologist);
+
+        ChatService chatService = new ChatService(null, null, null, null, null, null, null);
+        messagePage = BenchmarkFixtures.messages(psychologist, client, 50).stream()
+                .map(chatService::convertToDTO)
+                .toList();
+        message = messagePage.get(0);
+
+        dashboard = new DashboardController.PsychologistDashboard();
+        dashboard.setTotalClients(42);
+        dashboard.setActiveClients(17);
+        dashboard.setUpcomingSessionsToday(3);
+        dashboard.setUpcomingSessionsThisWeek(12);
+        dashboard.setPendingRecommendations(25);
+        dashboard.setUnreadMessages(8);
+        dashboard.setNextSessions(BenchmarkFixtures.sessions(psychologist, client, 5));
+        DashboardController.MonthlyStats monthlyStats = new DashboardController.MonthlyStats();
+        monthlyStats.setSessionsCompleted(30);
+        monthlyStats.setSessionsScheduled(14);
+        monthlyStats.setNewClients(4);
+        dashboard.setMonthlyStats(monthlyStats);
+    }
+
+    @Benchmark
+    public byte[] messageResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public byte[] messagePage() throws Exception {
+        return objectMapper.writeValueAsBytes(messagePage);
+    }
+
+    @Benchmark
+    public byte[] psychologistDashboard() throws Exception {
+        return objectMapper.writeValueAsBytes(dashboard);
+    }
+}
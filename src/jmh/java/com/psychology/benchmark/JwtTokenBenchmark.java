@@ -0,0 +1,61 @@
+package com.psychology.benchmark;
+
+import com.psychology.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка access-токена — выполняется на каждом HTTP-запросе и STOMP CONNECT.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenBenchmark {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", "benchmark-secret-key-benchmark-secret-key-benchmark-secret-key!!");
+        ReflectionTestUtils.setField(jwtTokenProvider, "accessExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.invokeMethod(jwtTokenProvider, "init");
+
+        userDetails = User.withUsername("+79990000002").password("").authorities("ROLE_CLIENT").build();
+        token = jwtTokenProvider.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtTokenProvider.generateAccessToken(userDetails);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtTokenProvider.extractUsername(token);
+    }
+}
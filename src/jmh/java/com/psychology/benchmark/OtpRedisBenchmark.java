@@ -0,0 +1,122 @@
+package com.psychology.benchmark;
+
+import com.psychology.service.OTPService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность OTP-входа (выпуск кода + проверка) на локальном Redis:
+ * Lua-скрипты OTPService (2 round trip) против прежней последовательности команд (10 round trip).
+ * Нужен Redis на localhost:6379 (docker compose up redis), адрес — -Dbenchmark.redis.host/port.
+ * Используется отдельная база (по умолчанию 15), она очищается до и после прогона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class OtpRedisBenchmark {
+
+    private final AtomicLong phones = new AtomicLong();
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private OTPService otpService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                System.getProperty("benchmark.redis.host", "localhost"),
+                Integer.getInteger("benchmark.redis.port", 6379));
+        configuration.setDatabase(Integer.getInteger("benchmark.redis.database", 15));
+        connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        flushDatabase();
+
+        otpService = new OTPService(redisTemplate);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        flushDatabase();
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public boolean loginFlowScripted() {
+        String phone = nextPhone();
+        String otp = otpService.generateOTP(phone);
+        return otpService.verifyOTP(phone, otp);
+    }
+
+    @Benchmark
+    public boolean loginFlowLegacy() {
+        String phone = nextPhone();
+        String otp = legacyGenerate(phone);
+        return legacyVerify(phone, otp);
+    }
+
+    // Каждый вызов — новый номер, иначе сработает таймаут повторной отправки
+    private String nextPhone() {
+        return "+7900" + String.format("%07d", phones.incrementAndGet());
+    }
+
+    // Прежний generateOTP: hasKey x2, SET x3, LPUSH, LTRIM
+    private String legacyGenerate(String phone) {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey("blocked:" + phone))) {
+            throw new IllegalStateException("Phone is temporarily blocked");
+        }
+        String timeoutKey = "otp_timeout:" + phone;
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(timeoutKey))) {
+            throw new IllegalStateException("Please wait before requesting new OTP");
+        }
+        String otp = "123456";
+        redisTemplate.opsForValue().set("otp:" + phone, otp, 5, TimeUnit.MINUTES);
+        redisTemplate.opsForValue().set("otp_admin:" + phone, otp, 5, TimeUnit.MINUTES);
+        redisTemplate.opsForValue().set(timeoutKey, "1", 60, TimeUnit.SECONDS);
+        redisTemplate.opsForList().leftPush("otp_admin_recent", phone + "|" + otp + "|" + System.currentTimeMillis());
+        redisTemplate.opsForList().trim("otp_admin_recent", 0, 49);
+        return otp;
+    }
+
+    // Прежний verifyOTP на успешном пути: GET, DEL кода, DEL счетчика попыток
+    private boolean legacyVerify(String phone, String otp) {
+        String stored = redisTemplate.opsForValue().get("otp:" + phone);
+        if (stored == null || !stored.equals(otp)) {
+            return false;
+        }
+        redisTemplate.delete("otp:" + phone);
+        redisTemplate.delete("otp_attempts:" + phone);
+        return true;
+    }
+
+    private void flushDatabase() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package com.psychology.benchmark;
+
+import com.psychology.model.entity.Client;
+import com.psychology.model.entity.Psychologist;
+import com.psychology.model.entity.Recommendation;
+import com.psychology.repository.ClientRepository;
+import com.psychology.repository.PsychologistRepository;
+import com.psychology.repository.RecommendationRepository;
+import com.psychology.service.RecommendationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выдача рекомендаций клиента: фильтр, порядок (просроченные, приоритет, дедлайн) и страница
+ * выполняются в PostgreSQL по индексу (client_id, completed, deadline). Нужна база из BenchmarkDatabase.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendationFilterBenchmark {
+
+    @Param({"100", "1000"})
+    private int recommendationCount;
+
+    private BenchmarkDatabase database;
+    private RecommendationService recommendationService;
+    private Client client;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = BenchmarkDatabase.start();
+        RecommendationRepository recommendationRepository = database.bean(RecommendationRepository.class);
+        ClientRepository clientRepository = database.bean(ClientRepository.class);
+
+        client = database.transactions().execute(status -> {
+            Psychologist psychologist = BenchmarkFixtures.psychologist();
+            psychologist.setId(null);
+            psychologist = database.bean(PsychologistRepository.class).save(psychologist);
+            Client saved = BenchmarkFixtures.client(psychologist);
+            saved.setId(null);
+            saved = clientRepository.save(saved);
+            recommendationRepository.saveAll(
+                    BenchmarkFixtures.recommendations(psychologist, saved, recommendationCount));
+            return saved;
+        });
+        database.jdbc().execute("ANALYZE recommendations");
+
+        recommendationService = new RecommendationService(recommendationRepository, clientRepository, null, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    @Benchmark
+    public Page<Recommendation> sortAll() {
+        return recommendationService.getMyRecommendations(client, null, null, null, null, 0, 20);
+    }
+
+    @Benchmark
+    public Page<Recommendation> filterPendingAndSort() {
+        return recommendationService.getMyRecommendations(client, false, null, null, null, 0, 20);
+    }
+}
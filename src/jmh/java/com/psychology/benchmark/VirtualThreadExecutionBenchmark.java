@@ -0,0 +1,105 @@
+package com.psychology.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Платформенный пул (как server.tomcat.max-threads=200) против профиля virtual-threads
+ * на пачке "запросов", которые большую часть времени ждут JDBC/Redis.
+ * Вариант blockingRequestsInSynchronized показывает pinning: блокировка внутри synchronized
+ * не отпускает carrier-поток, и виртуальные потоки теряют преимущество.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadExecutionBenchmark {
+
+    private static final int PLATFORM_POOL_SIZE = 200;
+    // Типичное ожидание ответа БД/Redis на запрос
+    private static final long BLOCKING_MILLIS = 5;
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    @Param({"1000", "5000"})
+    public int inFlightRequests;
+
+    private ExecutorService executorService;
+    private Object[] monitors;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executorService = "virtual".equals(executor)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+        monitors = new Object[inFlightRequests];
+        for (int i = 0; i < monitors.length; i++) {
+            monitors[i] = new Object();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        executorService.shutdownNow();
+        executorService.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public long blockingRequests() throws InterruptedException {
+        return runAll(i -> blockingCall());
+    }
+
+    @Benchmark
+    public long blockingRequestsInSynchronized() throws InterruptedException {
+        return runAll(i -> {
+            // У каждого запроса свой монитор — конкуренции нет, остается только pinning
+            synchronized (monitors[i]) {
+                blockingCall();
+            }
+        });
+    }
+
+    private long runAll(IntConsumer request) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(inFlightRequests);
+        for (int i = 0; i < inFlightRequests; i++) {
+            int requestIndex = i;
+            executorService.execute(() -> {
+                try {
+                    request.accept(requestIndex);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return done.getCount();
+    }
+
+    private static void blockingCall() {
+        try {
+            Thread.sleep(BLOCKING_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
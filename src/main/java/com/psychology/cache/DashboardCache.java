@@ -0,0 +1,216 @@
+package com.psychology.cache;
+
+import com.psychology.event.*;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Локальный кеш дашбордов по пользователю.
+ * Записи живут не дольше TTL и сбрасываются доменными событиями после коммита;
+ * при нескольких инстансах инвалидация рассылается через Redis pub/sub.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardCache {
+
+    private static final String INVALIDATION_CHANNEL = "dashboard:invalidate";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.dashboard-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.dashboard-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.dashboard-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.dashboard-cache.redis-invalidation:true}")
+    private boolean redisInvalidation;
+
+    private final Map<Long, CacheEntry> entries = new ConcurrentHashMap<>();
+    // Идущие расчеты по ключу: защищают от записи значения, посчитанного до инвалидации.
+    // Запись живет только пока есть хотя бы один расчет, поэтому карта не растет с числом пользователей
+    private final Map<Long, Loading> loading = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    void subscribe() {
+        if (!redisInvalidation) {
+            return;
+        }
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                evictLocal(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+            } catch (NumberFormatException e) {
+                log.warn("Invalid dashboard invalidation message");
+            }
+        }, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long userId, Supplier<T> loader) {
+        if (!enabled || userId == null) {
+            return loader.get();
+        }
+
+        long now = System.currentTimeMillis();
+        CacheEntry entry = entries.get(userId);
+        if (entry != null && entry.expiresAt() > now) {
+            hits.incrementAndGet();
+            return (T) entry.value();
+        }
+
+        misses.incrementAndGet();
+        loading.compute(userId, (id, current) -> {
+            Loading state = current != null ? current : new Loading();
+            state.loaders++;
+            return state;
+        });
+
+        T value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            finishLoading(userId, null, now, false);
+            throw e;
+        }
+        if (finishLoading(userId, value, now, true)) {
+            evictIfNeeded(now);
+        }
+        return value;
+    }
+
+    public void invalidate(Long... userIds) {
+        for (Long userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+            evictLocal(userId);
+            if (redisInvalidation) {
+                try {
+                    stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, userId.toString());
+                } catch (Exception e) {
+                    log.warn("Failed to publish dashboard invalidation for user {}: {}", userId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        invalidate(event.psychologistId(), event.clientId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        // Дашборд психолога учитывает непрочитанные сообщения его клиентов
+        invalidate(event.senderId(), event.receiverId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesRead(MessagesReadEvent event) {
+        invalidate(event.readerId(), event.senderId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecommendationChanged(RecommendationChangedEvent event) {
+        invalidate(event.psychologistId(), event.clientId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJournalEntryChanged(JournalEntryChangedEvent event) {
+        invalidate(event.clientId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationChanged(NotificationChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(entries.size(), hits.get(), misses.get(), evictions.get(), invalidations.get());
+    }
+
+    // Под блокировкой ключа в loading: расчет не запишет значение между проверкой и удалением
+    private void evictLocal(Long userId) {
+        boolean[] removed = {false};
+        loading.compute(userId, (id, state) -> {
+            if (state != null) {
+                state.invalidated = true;
+            }
+            removed[0] = entries.remove(userId) != null;
+            return state;
+        });
+        if (removed[0]) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    private boolean finishLoading(Long userId, Object value, long now, boolean cache) {
+        boolean[] stored = {false};
+        loading.compute(userId, (id, state) -> {
+            // Если за время расчета пришла инвалидация, значение не кешируем
+            if (cache && !state.invalidated) {
+                entries.put(userId, new CacheEntry(value, now + ttlSeconds * 1000));
+                stored[0] = true;
+            }
+            state.loaders--;
+            return state.loaders == 0 ? null : state;
+        });
+        return stored[0];
+    }
+
+    private void evictIfNeeded(long now) {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        // Сначала просроченные, затем произвольные записи до лимита
+        entries.entrySet().removeIf(e -> {
+            boolean expired = e.getValue().expiresAt() <= now;
+            if (expired) {
+                evictions.incrementAndGet();
+            }
+            return expired;
+        });
+        Iterator<Long> keys = entries.keySet().iterator();
+        while (entries.size() > maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private record CacheEntry(Object value, long expiresAt) {
+    }
+
+    // Поля меняются только внутри loading.compute
+    private static final class Loading {
+        private int loaders;
+        private boolean invalidated;
+    }
+
+    public record CacheStats(int size, long hits, long misses, long evictions, long invalidations) {
+    }
+}
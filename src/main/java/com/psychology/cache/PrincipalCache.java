@@ -0,0 +1,213 @@
+package com.psychology.cache;
+
+import com.psychology.event.UserAccountChangedEvent;
+import com.psychology.model.entity.Client;
+import com.psychology.model.entity.Psychologist;
+import com.psychology.model.entity.User;
+import com.psychology.model.entity.UserRole;
+import com.psychology.repository.ClientRepository;
+import com.psychology.repository.PsychologistRepository;
+import com.psychology.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кеш principal по телефону из токена: снимок (id, роль, верификация, психолог клиента)
+ * вместо findByPhone с join по users/clients/psychologists на каждом запросе и STOMP CONNECT.
+ * В SecurityContext кладется ленивая ссылка на сущность нужного подкласса: getId() и
+ * проверки типа работают без БД, остальные поля догружаются при первом обращении.
+ * Сбрасывается событием UserAccountChangedEvent после коммита, между узлами — через Redis pub/sub.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PrincipalCache {
+
+    private static final String INVALIDATION_CHANNEL = "principal:invalidate";
+
+    private final UserRepository userRepository;
+    private final ClientRepository clientRepository;
+    private final PsychologistRepository psychologistRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.principal-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${app.principal-cache.max-size:50000}")
+    private int maxSize;
+
+    private final Map<String, CacheEntry> entries = new ConcurrentHashMap<>();
+    // id пользователя -> телефон: инвалидация по id без обхода всего кеша
+    private final Map<Long, String> phonesById = new ConcurrentHashMap<>();
+    // Защищает от записи снимка, прочитанного до инвалидации
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    void subscribe() {
+        listenerContainer.addMessageListener((message, pattern) ->
+                evictLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Снимок пользователя по телефону; пусто, если такого пользователя нет (например, админ).
+     */
+    public Optional<PrincipalSnapshot> get(String phone) {
+        if (!enabled) {
+            return userRepository.findByPhone(phone).map(PrincipalSnapshot::of);
+        }
+
+        long now = System.currentTimeMillis();
+        CacheEntry entry = entries.get(phone);
+        if (entry != null && entry.expiresAt() > now) {
+            hits.incrementAndGet();
+            return Optional.of(entry.snapshot());
+        }
+
+        misses.incrementAndGet();
+        long observed = generation.get();
+        Optional<PrincipalSnapshot> snapshot = userRepository.findByPhone(phone).map(PrincipalSnapshot::of);
+        if (snapshot.isPresent() && generation.get() == observed) {
+            entries.put(phone, new CacheEntry(snapshot.get(), now + ttlSeconds * 1000));
+            phonesById.put(snapshot.get().id(), phone);
+            evictIfNeeded(now);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Principal для SecurityContext: ссылка на сущность без запроса в БД.
+     */
+    public User toPrincipal(PrincipalSnapshot snapshot) {
+        return switch (snapshot.role()) {
+            case ROLE_CLIENT -> clientRepository.getReferenceById(snapshot.id());
+            case ROLE_PSYCHOLOGIST -> psychologistRepository.getReferenceById(snapshot.id());
+            default -> userRepository.findById(snapshot.id())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+        };
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountChanged(UserAccountChangedEvent event) {
+        if (event.phone() != null) {
+            invalidate(event.phone());
+        }
+        if (event.userId() != null) {
+            invalidate(event.userId().toString());
+        }
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(entries.size(), hits.get(), misses.get(), invalidations.get());
+    }
+
+    // key — телефон или id пользователя
+    private void invalidate(String key) {
+        evictLocal(key);
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, key);
+        } catch (Exception e) {
+            log.warn("Failed to publish principal invalidation for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void evictLocal(String key) {
+        generation.incrementAndGet();
+        boolean removed = remove(key);
+        Long userId = parseId(key);
+        if (userId != null) {
+            String phone = phonesById.get(userId);
+            removed |= phone != null && remove(phone);
+        }
+        if (removed) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    // Удаление по телефону вместе с записью индекса phonesById
+    private boolean remove(String phone) {
+        CacheEntry entry = entries.remove(phone);
+        if (entry == null) {
+            return false;
+        }
+        phonesById.remove(entry.snapshot().id(), phone);
+        return true;
+    }
+
+    private static Long parseId(String key) {
+        if (key.isEmpty() || !Character.isDigit(key.charAt(0))) {
+            return null;
+        }
+        try {
+            return Long.valueOf(key);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void evictIfNeeded(long now) {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        entries.forEach((phone, entry) -> {
+            if (entry.expiresAt() <= now) {
+                remove(phone);
+            }
+        });
+        Iterator<String> phones = entries.keySet().iterator();
+        while (entries.size() > maxSize && phones.hasNext()) {
+            remove(phones.next());
+        }
+    }
+
+    /**
+     * Неизменяемый снимок учетной записи. verified имеет смысл только для психолога,
+     * psychologistId — только для клиента.
+     */
+    public record PrincipalSnapshot(Long id, String phone, UserRole role, boolean verified, Long psychologistId) {
+
+        static PrincipalSnapshot of(User user) {
+            boolean verified = !(user instanceof Psychologist psychologist) || psychologist.isVerified();
+            Long psychologistId = user instanceof Client client && client.getPsychologist() != null
+                    ? client.getPsychologist().getId()
+                    : null;
+            return new PrincipalSnapshot(user.getId(), user.getPhone(), user.getRole(), verified, psychologistId);
+        }
+
+        public Collection<? extends GrantedAuthority> authorities() {
+            return List.of(new SimpleGrantedAuthority(role.name()));
+        }
+    }
+
+    private record CacheEntry(PrincipalSnapshot snapshot, long expiresAt) {
+    }
+
+    public record CacheStats(int size, long hits, long misses, long invalidations) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.psychology.cache;
+
+import com.psychology.event.MessageSentEvent;
+import com.psychology.event.MessagesReadEvent;
+import com.psychology.event.NotificationChangedEvent;
+import com.psychology.repository.MessageRepository;
+import com.psychology.repository.NotificationRepository;
+import com.psychology.repository.UnreadCountView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Счетчики непрочитанных сообщений и уведомлений в Redis.
+ * Ключ заводится при первом чтении из SQL и дальше меняется событиями после коммита;
+ * пока ключа нет, события его не трогают (иначе счет начался бы с нуля).
+ * Расхождения из-за гонок и массовых удалений исправляет периодическая сверка.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UnreadCounters {
+
+    // Меняем значение только у существующего ключа; уход в минус — признак рассинхрона, сбрасываем
+    private static final DefaultRedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return -1 end " +
+            "local v = redis.call('incrby', KEYS[1], ARGV[1]) " +
+            "if v < 0 then redis.call('del', KEYS[1]) return -1 end " +
+            "return v", Long.class);
+
+    private static final int RECONCILE_BATCH = 500;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MessageRepository messageRepository;
+    private final NotificationRepository notificationRepository;
+
+    @Value("${app.unread-counters.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.unread-counters.ttl-hours:24}")
+    private long ttlHours;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong corrected = new AtomicLong();
+
+    public enum Kind {
+        MESSAGES("unread:messages:"),
+        NOTIFICATIONS("unread:notifications:");
+
+        private final String prefix;
+
+        Kind(String prefix) {
+            this.prefix = prefix;
+        }
+
+        String key(Long userId) {
+            return prefix + userId;
+        }
+    }
+
+    public long get(Kind kind, Long userId, LongSupplier sqlCount) {
+        if (!enabled) {
+            return sqlCount.getAsLong();
+        }
+        String key = kind.key(userId);
+        try {
+            String cached = stringRedisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return Long.parseLong(cached);
+            }
+        } catch (Exception e) {
+            fallbacks.incrementAndGet();
+            log.warn("Unread counter {} unavailable, counting in SQL: {}", key, e.getMessage());
+            return sqlCount.getAsLong();
+        }
+
+        misses.incrementAndGet();
+        long count = sqlCount.getAsLong();
+        try {
+            stringRedisTemplate.opsForValue().setIfAbsent(key, Long.toString(count), Duration.ofHours(ttlHours));
+        } catch (Exception e) {
+            log.warn("Failed to store unread counter {}: {}", key, e.getMessage());
+        }
+        return count;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        add(Kind.MESSAGES, event.receiverId(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesRead(MessagesReadEvent event) {
+        add(Kind.MESSAGES, event.readerId(), -event.count());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationChanged(NotificationChangedEvent event) {
+        if (event.unreadReset()) {
+            set(Kind.NOTIFICATIONS, event.userId(), 0);
+        } else {
+            add(Kind.NOTIFICATIONS, event.userId(), event.unreadDelta());
+        }
+    }
+
+    /**
+     * Сверяет все заведенные счетчики с SQL: пачками по RECONCILE_BATCH пользователей,
+     * один групповой COUNT на пачку. Возвращает число исправленных ключей.
+     */
+    public long reconcile() {
+        if (!enabled) {
+            return 0;
+        }
+        long fixed = reconcile(Kind.MESSAGES, messageRepository::countUnreadByReceiverIds);
+        fixed += reconcile(Kind.NOTIFICATIONS, notificationRepository::countUnreadByUserIds);
+        corrected.addAndGet(fixed);
+        return fixed;
+    }
+
+    public CounterStats getStats() {
+        return new CounterStats(hits.get(), misses.get(), fallbacks.get(), corrected.get());
+    }
+
+    private long reconcile(Kind kind, Function<Collection<Long>, List<UnreadCountView>> countQuery) {
+        long fixed = 0;
+        List<Long> batch = new ArrayList<>(RECONCILE_BATCH);
+        ScanOptions options = ScanOptions.scanOptions().match(kind.prefix + "*").count(RECONCILE_BATCH).build();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                try {
+                    batch.add(Long.valueOf(cursor.next().substring(kind.prefix.length())));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (batch.size() >= RECONCILE_BATCH) {
+                    fixed += reconcileBatch(kind, batch, countQuery);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            fixed += reconcileBatch(kind, batch, countQuery);
+        }
+        return fixed;
+    }
+
+    private long reconcileBatch(Kind kind, List<Long> userIds,
+                                Function<Collection<Long>, List<UnreadCountView>> countQuery) {
+        Map<Long, Long> actual = new HashMap<>();
+        userIds.forEach(id -> actual.put(id, 0L));
+        countQuery.apply(userIds).forEach(row -> actual.put(row.getUserId(), row.getUnreadCount()));
+
+        List<String> keys = userIds.stream().map(kind::key).toList();
+        List<String> current = stringRedisTemplate.opsForValue().multiGet(keys);
+
+        Map<String, String> updates = new HashMap<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            String expected = Long.toString(actual.get(userIds.get(i)));
+            String value = current != null ? current.get(i) : null;
+            if (value != null && !value.equals(expected)) {
+                updates.put(keys.get(i), expected);
+            }
+        }
+        if (updates.isEmpty()) {
+            return 0;
+        }
+
+        long ttlSeconds = Duration.ofHours(ttlHours).toSeconds();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            updates.forEach((key, value) -> redis.setEx(key, ttlSeconds, value));
+            return null;
+        });
+        log.info("Reconciled {} {} counters", updates.size(), kind);
+        return updates.size();
+    }
+
+    private void add(Kind kind, Long userId, int delta) {
+        if (!enabled || userId == null || delta == 0) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(ADD_SCRIPT, List.of(kind.key(userId)), Integer.toString(delta));
+        } catch (Exception e) {
+            // Не смогли обновить — удаляем ключ, следующее чтение пересчитает из SQL
+            log.warn("Failed to update unread counter for user {}: {}", userId, e.getMessage());
+            evict(kind, userId);
+        }
+    }
+
+    private void set(Kind kind, Long userId, long value) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(kind.key(userId), Long.toString(value), Duration.ofHours(ttlHours));
+        } catch (Exception e) {
+            log.warn("Failed to reset unread counter for user {}: {}", userId, e.getMessage());
+            evict(kind, userId);
+        }
+    }
+
+    private void evict(Kind kind, Long userId) {
+        try {
+            stringRedisTemplate.delete(kind.key(userId));
+        } catch (Exception ignored) {
+            // Redis недоступен — ключ истечет по TTL
+        }
+    }
+
+    public record CounterStats(long hits, long misses, long fallbacks, long corrected) {
+    }
+}
@@ -16,9 +16,14 @@ public class RateLimitConfig implements WebMvcConfigurer {
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // Маршруты и политики — в RateLimitPolicies
         registry.addInterceptor(rateLimitInterceptor)
                 .addPathPatterns("/api/v1/auth/**") // Ограничиваем эндпоинты авторизации
                 .addPathPatterns("/api/v1/otp/**")
+                .addPathPatterns("/api/v1/profile/phone/send-otp")
+                .addPathPatterns("/api/v1/chat/send")
+                .addPathPatterns("/api/v1/files/upload")
+                .addPathPatterns("/api/v1/journal")
                 .excludePathPatterns("/api/v1/auth/refresh"); // Исключаем refresh
     }
 }
\ No newline at end of file
@@ -68,6 +68,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/notifications/**").authenticated()
                         .requestMatchers("/api/v1/dashboard/**").authenticated()
                         .requestMatchers("/api/v1/clients/**").authenticated()
+                        .requestMatchers("/api/v1/search/**").authenticated()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
@@ -0,0 +1,111 @@
+package com.psychology.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Страховка от pinning в режиме виртуальных потоков (Java 21).
+ * Блокирующий вызов внутри synchronized не отпускает carrier-поток; если такое
+ * случится в JDBC/Redis-пути (драйвер, пул, наш код), пропускная способность
+ * падает до числа carrier-потоков. Монитор слушает JFR-событие jdk.VirtualThreadPinned
+ * и пишет в лог стек виновника, счетчики видны в /admin/metrics/virtual-threads.
+ */
+@Component
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.virtual-threads.pinning-monitor.enabled:true}")
+    private boolean monitorEnabled;
+
+    // Короткие удержания (мьютекс в памяти) не интересны — только реальные блокировки
+    @Value("${app.virtual-threads.pinning-monitor.threshold-ms:20}")
+    private long thresholdMs;
+
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final AtomicLong pinnedTotalMs = new AtomicLong();
+    private final AtomicReference<PinnedSample> lastSample = new AtomicReference<>();
+
+    private volatile RecordingStream stream;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!virtualThreads || !monitorEnabled) {
+            return;
+        }
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+            recording.onEvent(PINNED_EVENT, this::onPinned);
+            recording.startAsync();
+            stream = recording;
+            log.info("Virtual thread pinning monitor started, threshold {} ms", thresholdMs);
+        } catch (Exception | LinkageError e) {
+            // JFR может быть недоступен в урезанном рантайме — режим работает и без монитора
+            log.warn("Virtual thread pinning monitor is unavailable: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    public PinningStats getStats() {
+        return new PinningStats(virtualThreads, stream != null, thresholdMs,
+                pinnedEvents.get(), pinnedTotalMs.get(), lastSample.get());
+    }
+
+    private void onPinned(RecordedEvent event) {
+        long durationMs = event.getDuration().toMillis();
+        pinnedEvents.incrementAndGet();
+        pinnedTotalMs.addAndGet(durationMs);
+
+        List<String> frames = frames(event.getStackTrace());
+        lastSample.set(new PinnedSample(LocalDateTime.now(), durationMs, frames));
+        log.warn("Virtual thread pinned for {} ms at:\n\t{}", durationMs, String.join("\n\t", frames));
+    }
+
+    private static List<String> frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return List.of();
+        }
+        return stackTrace.getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .limit(LOGGED_FRAMES)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.toList());
+    }
+
+    public record PinnedSample(LocalDateTime at, long durationMs, List<String> frames) {
+    }
+
+    public record PinningStats(boolean virtualThreads, boolean monitoring, long thresholdMs,
+                               long pinnedEvents, long pinnedTotalMs, PinnedSample lastSample) {
+    }
+}
@@ -1,13 +1,15 @@
 package com.psychology.config;
 
-import com.psychology.security.JwtTokenProvider;
-import com.psychology.repository.UserRepository;
+import com.psychology.cache.PrincipalCache;
+import com.psychology.security.PrincipalAuthenticationToken;
+import com.psychology.security.TokenVerifier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.simp.config.ChannelRegistration;
@@ -16,7 +18,6 @@ import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -31,17 +32,26 @@ import java.util.List;
 @Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
-    private final JwtTokenProvider jwtTokenProvider;
-    private final UserRepository userRepository;
-    private final StringRedisTemplate stringRedisTemplate;
+    private final TokenVerifier tokenVerifier;
+    private final PrincipalCache principalCache;
 
-    private static final String BLACKLIST_PREFIX = "blacklist:";
+    // Профиль virtual-threads: каналы STOMP тоже работают на виртуальных потоках
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Верхняя граница одновременно обрабатываемых сообщений на канал; при превышении отправитель ждет
+    @Value("${app.websocket.channel-concurrency-limit:2000}")
+    private int channelConcurrencyLimit;
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue", "/user");
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
+        if (virtualThreads) {
+            // Поток на сообщение не дает порядка сам по себе — сохраняем его в пределах сессии
+            config.setPreservePublishOrder(true);
+        }
     }
 
     @Override
@@ -70,10 +80,17 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                         "https://188.225.45.82",
                         "https://188.225.45.82:443"
                 );
+
+        if (virtualThreads) {
+            registry.setPreserveReceiveOrder(true);
+        }
     }
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(virtualChannelExecutor("ws-inbound-"));
+        }
         registration.interceptors(new ChannelInterceptor() {
             @Override
             public Message<?> preSend(Message<?> message, MessageChannel channel) {
@@ -89,20 +106,21 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                             token = token.substring(7);
 
                             try {
-                                if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(BLACKLIST_PREFIX + token))) {
+                                TokenVerifier.Result verification = tokenVerifier.verify(token);
+
+                                if (verification.status() == TokenVerifier.Status.REVOKED) {
                                     log.warn("Blacklisted WebSocket token");
                                     return null;
                                 }
 
-                                if (jwtTokenProvider.validateToken(token)) {
-                                    String phone = jwtTokenProvider.extractUsername(token);
+                                if (verification.isValid()) {
+                                    String phone = verification.token().subject();
 
-                                    var user = userRepository.findByPhone(phone)
+                                    PrincipalCache.PrincipalSnapshot snapshot = principalCache.get(phone)
                                             .orElseThrow(() -> new RuntimeException("User not found"));
 
-                                    Authentication authentication = new UsernamePasswordAuthenticationToken(
-                                            user, null, user.getAuthorities()
-                                    );
+                                    Authentication authentication = new PrincipalAuthenticationToken(
+                                            principalCache.toPrincipal(snapshot), snapshot);
                                     accessor.setUser(authentication);
 
                                     log.info("WebSocket authenticated user: {}", phone);
@@ -128,6 +146,22 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         });
     }
 
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(virtualChannelExecutor("ws-outbound-"));
+        }
+    }
+
+    // Проверка токена и поиск пользователя на CONNECT, отправка в сокет — блокирующие вызовы,
+    // на виртуальном потоке они не занимают поток платформы
+    private SimpleAsyncTaskExecutor virtualChannelExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(channelConcurrencyLimit);
+        return executor;
+    }
+
     @Override
     public void configureWebSocketTransport(org.springframework.web.socket.config.annotation.WebSocketTransportRegistration registration) {
         registration.setMessageSizeLimit(5 * 1024 * 1024); // 5MB
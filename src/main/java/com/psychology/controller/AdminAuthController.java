@@ -4,6 +4,8 @@ import com.psychology.dto.AuthDTO.AdminLoginRequest;
 import com.psychology.dto.AuthDTO.AdminLoginResponse;
 import jakarta.servlet.http.HttpServletResponse;
 import com.psychology.security.JwtTokenProvider;
+import com.psychology.security.TokenRevocationService;
+import com.psychology.security.TokenVerifier;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,6 +27,8 @@ public class AdminAuthController {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final StringRedisTemplate stringRedisTemplate;
+    private final TokenVerifier tokenVerifier;
+    private final TokenRevocationService tokenRevocationService;
 
     @Value("${admin.login:admin}")
     private String adminLogin;
@@ -35,7 +39,6 @@ public class AdminAuthController {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpirationMs;
 
-    private static final String BLACKLIST_PREFIX = "blacklist:";
     private static final String REFRESH_PREFIX = "refresh:";
 
     @PostMapping("/login")
@@ -77,17 +80,18 @@ public class AdminAuthController {
                     .body(new ApiResponse("Refresh token is missing"));
         }
 
-        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(BLACKLIST_PREFIX + refreshToken))) {
+        TokenVerifier.Result verification = tokenVerifier.verify(refreshToken);
+        if (verification.status() == TokenVerifier.Status.REVOKED) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ApiResponse("Token is blacklisted"));
         }
 
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
+        if (!verification.isValid()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ApiResponse("Invalid refresh token"));
         }
 
-        String username = jwtTokenProvider.extractUsername(refreshToken);
+        String username = verification.token().subject();
         if (!adminLogin.equals(username)) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ApiResponse("Invalid admin token"));
@@ -99,13 +103,9 @@ public class AdminAuthController {
                     .body(new ApiResponse("Refresh token mismatch"));
         }
 
-        // Блеклистим старый refresh token
-        stringRedisTemplate.opsForValue().set(
-                BLACKLIST_PREFIX + refreshToken,
-                "blacklisted",
-                refreshExpirationMs,
-                TimeUnit.MILLISECONDS
-        );
+        // Отзываем старый refresh token
+        tokenRevocationService.revoke(refreshToken);
+        tokenVerifier.evict(refreshToken);
 
         UserDetails adminUser = buildAdminUser();
         String newAccessToken = jwtTokenProvider.generateAccessToken(adminUser);
@@ -1,7 +1,18 @@
 package com.psychology.controller;
 
+import com.psychology.cache.DashboardCache;
+import com.psychology.cache.PrincipalCache;
+import com.psychology.cache.UnreadCounters;
+import com.psychology.config.VirtualThreadPinningMonitor;
 import com.psychology.model.entity.Psychologist;
+import com.psychology.outbox.OutboxDispatcher;
+import com.psychology.ratelimiting.RateLimiter;
+import com.psychology.scheduler.JobCoordinator;
+import com.psychology.security.TokenRevocationService;
 import com.psychology.service.AdminService;
+import com.psychology.service.JournalRetentionService;
+import com.psychology.service.NotificationRetentionService;
+import com.psychology.service.RetentionRun;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -11,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/admin")
@@ -19,6 +31,16 @@ import java.util.List;
 public class AdminController {
 
     private final AdminService adminService;
+    private final DashboardCache dashboardCache;
+    private final NotificationRetentionService notificationRetentionService;
+    private final JournalRetentionService journalRetentionService;
+    private final JobCoordinator jobCoordinator;
+    private final UnreadCounters unreadCounters;
+    private final OutboxDispatcher outboxDispatcher;
+    private final VirtualThreadPinningMonitor virtualThreadPinningMonitor;
+    private final RateLimiter rateLimiter;
+    private final TokenRevocationService tokenRevocationService;
+    private final PrincipalCache principalCache;
 
     // Получить список психологов на верификацию
     @GetMapping("/psychologists/pending")
@@ -83,6 +105,73 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getRecentOtps());
     }
 
+    // Метрики кеша дашбордов (hit/miss/eviction)
+    @GetMapping("/metrics/dashboard-cache")
+    public ResponseEntity<DashboardCache.CacheStats> getDashboardCacheStats() {
+        return ResponseEntity.ok(dashboardCache.getStats());
+    }
+
+    // Прогресс/итог последней очистки уведомлений
+    @GetMapping("/metrics/retention/notifications")
+    public ResponseEntity<?> getNotificationRetentionStats() {
+        RetentionRun run = notificationRetentionService.getLastRun();
+        if (run == null) {
+            return ResponseEntity.ok(new ApiResponse("Retention has not run yet"));
+        }
+        return ResponseEntity.ok(run);
+    }
+
+    // Прогресс/итог последней очистки дневника
+    @GetMapping("/metrics/retention/journal")
+    public ResponseEntity<?> getJournalRetentionStats() {
+        RetentionRun run = journalRetentionService.getLastRun();
+        if (run == null) {
+            return ResponseEntity.ok(new ApiResponse("Retention has not run yet"));
+        }
+        return ResponseEntity.ok(run);
+    }
+
+    // Счетчики непрочитанных: попадания в Redis, пересчеты из SQL, исправления сверкой
+    @GetMapping("/metrics/unread-counters")
+    public ResponseEntity<UnreadCounters.CounterStats> getUnreadCounterStats() {
+        return ResponseEntity.ok(unreadCounters.getStats());
+    }
+
+    // Outbox WebSocket-доставки: доставлено, повторы, ожидают, исчерпали попытки
+    @GetMapping("/metrics/outbox")
+    public ResponseEntity<OutboxDispatcher.OutboxStats> getOutboxStats() {
+        return ResponseEntity.ok(outboxDispatcher.getStats());
+    }
+
+    // Последний запуск фоновых задач на этом узле: длительность, затронутые строки, пропуски
+    @GetMapping("/metrics/jobs")
+    public ResponseEntity<Map<String, JobCoordinator.JobStats>> getJobStats() {
+        return ResponseEntity.ok(jobCoordinator.getStats());
+    }
+
+    // Режим виртуальных потоков: сколько раз и где carrier-поток был закреплен блокировкой
+    @GetMapping("/metrics/virtual-threads")
+    public ResponseEntity<VirtualThreadPinningMonitor.PinningStats> getVirtualThreadStats() {
+        return ResponseEntity.ok(virtualThreadPinningMonitor.getStats());
+    }
+
+    // Rate limiting: пропущено, отклонено локально (без Redis) и в Redis, ошибки Redis
+    @GetMapping("/metrics/rate-limit")
+    public ResponseEntity<RateLimiter.RateLimitStats> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimiter.getStats());
+    }
+
+    // Отзыв токенов: сколько проверок отсек Bloom-фильтр, сколько ушло в Redis, ложные срабатывания
+    @GetMapping("/metrics/token-revocation")
+    public ResponseEntity<TokenRevocationService.RevocationStats> getTokenRevocationStats() {
+        return ResponseEntity.ok(tokenRevocationService.getStats());
+    }
+
+    @GetMapping("/metrics/principal-cache")
+    public ResponseEntity<PrincipalCache.CacheStats> getPrincipalCacheStats() {
+        return ResponseEntity.ok(principalCache.getStats());
+    }
+
     @Data
     public static class RejectRequest {
         private String reason;
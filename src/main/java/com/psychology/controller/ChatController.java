@@ -32,11 +32,8 @@ public class ChatController {
             @AuthenticationPrincipal User sender,
             @RequestBody ChatDTO.SendMessageRequest request) {
         try {
+            // Уведомление получателю ставит в outbox сам ChatService
             ChatDTO.MessageResponse response = chatService.sendMessage(sender, request);
-
-            // Отправляем уведомление через NotificationService
-            notificationService.sendNewMessageNotification(response);
-
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -47,8 +44,15 @@ public class ChatController {
     @GetMapping("/conversation/{userId}")
     public ResponseEntity<?> getConversation(
             @AuthenticationPrincipal User currentUser,
-            @PathVariable Long userId) {
+            @PathVariable Long userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit) {
         try {
+            // Постраничный режим: курсор before и/или limit
+            if (before != null || limit != null) {
+                return ResponseEntity.ok(chatService.getConversationPage(currentUser, userId, before, limit));
+            }
+
             List<ChatDTO.MessageResponse> conversation =
                     chatService.getConversation(currentUser, userId);
             return ResponseEntity.ok(conversation);
@@ -58,6 +62,19 @@ public class ChatController {
         }
     }
 
+    // Список чатов: последняя реплика и непрочитанные по каждому собеседнику
+    @GetMapping("/conversations")
+    public ResponseEntity<?> getConversations(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(chatService.getConversations(user, limit));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse(e.getMessage()));
+        }
+    }
+
     @GetMapping("/recent")
     public ResponseEntity<?> getRecentMessages(
             @AuthenticationPrincipal User user,
@@ -88,6 +105,24 @@ public class ChatController {
         }
     }
 
+    // Прочитано все входящее от собеседника до сообщения upToMessageId включительно
+    @PostMapping("/conversation/{userId}/read")
+    public ResponseEntity<?> markReadUpTo(
+            @AuthenticationPrincipal User user,
+            @PathVariable Long userId,
+            @RequestBody ChatDTO.MarkReadUpToRequest request) {
+        try {
+            ChatDTO.ReadReceipt receipt = chatService.markReadUpTo(user, userId, request.getUpToMessageId());
+            if (receipt.getReadCount() > 0) {
+                notificationService.sendReadReceipt(userId, receipt);
+            }
+            return ResponseEntity.ok(receipt);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse(e.getMessage()));
+        }
+    }
+
     @GetMapping("/unread/count")
     public ResponseEntity<?> getUnreadCount(@AuthenticationPrincipal User user) {
         try {
@@ -1,5 +1,6 @@
 package com.psychology.controller;
 
+import com.psychology.cache.PrincipalCache;
 import com.psychology.model.entity.Client;
 import com.psychology.model.entity.Psychologist;
 import com.psychology.model.entity.Session;
@@ -37,7 +38,7 @@ public class DashboardController {
     @GetMapping("/client")
     @PreAuthorize("hasRole('CLIENT')")
     public ResponseEntity<ClientDashboard> getClientDashboard(
-            @AuthenticationPrincipal Client client) {
+            PrincipalCache.PrincipalSnapshot client) {
         ClientDashboard dashboard = dashboardService.getClientDashboard(client);
         return ResponseEntity.ok(dashboard);
     }
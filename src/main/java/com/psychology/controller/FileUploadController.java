@@ -3,6 +3,8 @@ package com.psychology.controller;
 import com.psychology.service.FileStorageService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -45,15 +47,19 @@ public class FileUploadController {
         }
     }
 
+    // Потоковая отдача: Range (206), If-None-Match / If-Modified-Since (304) обрабатывает Spring MVC
     @GetMapping("/download/{filename:.+}")
-    public ResponseEntity<byte[]> downloadFile(@PathVariable String filename) {
+    public ResponseEntity<Resource> downloadFile(@PathVariable String filename) {
         try {
-            byte[] fileContent = fileStorageService.loadFile(filename);
+            FileStorageService.StoredFile file = fileStorageService.loadFileAsResource(filename);
 
             return ResponseEntity.ok()
                     .contentType(MediaType.APPLICATION_OCTET_STREAM)
                     .header("Content-Disposition", "attachment; filename=\"" + filename + "\"")
-                    .body(fileContent);
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .eTag(file.etag())
+                    .lastModified(file.lastModified())
+                    .body(file.resource());
 
         } catch (IOException e) {
             return ResponseEntity.notFound().build();
@@ -1,5 +1,6 @@
 package com.psychology.controller;
 
+import com.psychology.cache.PrincipalCache;
 import com.psychology.model.entity.Psychologist;
 import com.psychology.repository.PsychologistRepository;
 import com.psychology.service.InviteService;
@@ -26,7 +27,8 @@ public class InviteController {
 
     @PostMapping
     @PreAuthorize("hasRole('PSYCHOLOGIST')") // Добавляем проверку роли
-    public ResponseEntity<?> createInvite(@AuthenticationPrincipal Object principal) {
+    public ResponseEntity<?> createInvite(@AuthenticationPrincipal Object principal,
+                                          PrincipalCache.PrincipalSnapshot snapshot) {
         log.info("=== CREATE INVITE REQUEST ===");
 
         try {
@@ -59,8 +61,9 @@ public class InviteController {
                         .body(new ApiResponse("Invalid user type"));
             }
 
-            // Проверяем верификацию психолога
-            if (!psychologist.isVerified()) {
+            // Проверяем верификацию психолога: флаг берется из снимка principal, без загрузки сущности
+            boolean verified = snapshot != null ? snapshot.verified() : psychologist.isVerified();
+            if (!verified) {
                 log.warn("Psychologist {} is not verified", psychologist.getId());
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(new ApiResponse("Psychologist account is not verified yet. Please wait for administrator verification."));
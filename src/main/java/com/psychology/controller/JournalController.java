@@ -3,15 +3,19 @@ package com.psychology.controller;
 import com.psychology.model.entity.Client;
 import com.psychology.model.entity.JournalEntry;
 import com.psychology.model.entity.Psychologist;
+import com.psychology.repository.JournalEntryView;
 import com.psychology.service.JournalService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -133,15 +137,25 @@ public class JournalController {
         }
     }
 
-    // Поиск записей по тегам
+    // Поиск записей по тегам: ?tag=a&tag=b&match=all|any, текст записи — только с includeContent=true
     @GetMapping("/search")
     @PreAuthorize("hasRole('CLIENT')")
     public ResponseEntity<?> searchEntries(
             @AuthenticationPrincipal Client client,
-            @RequestParam String tag) {
+            @RequestParam("tag") List<String> tags,
+            @RequestParam(defaultValue = "any") String match,
+            @RequestParam(defaultValue = "false") boolean includeContent,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<JournalEntry> entries = journalService.searchEntriesByTag(client.getId(), tag);
-            return ResponseEntity.ok(entries);
+            if (!"any".equalsIgnoreCase(match) && !"all".equalsIgnoreCase(match)) {
+                throw new RuntimeException("match must be 'any' or 'all'");
+            }
+            Page<JournalEntryView> entries = journalService.searchEntriesByTags(client.getId(), tags,
+                    "all".equalsIgnoreCase(match), includeContent, page, size);
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(entries.getTotalElements()))
+                    .body(entries.getContent());
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new ApiResponse(e.getMessage()));
@@ -161,6 +175,38 @@ public class JournalController {
         }
     }
 
+    // Динамика настроения по дням (по умолчанию последние 30 дней)
+    @GetMapping("/mood-trend")
+    @PreAuthorize("hasRole('CLIENT')")
+    public ResponseEntity<?> getMoodTrend(
+            @AuthenticationPrincipal Client client,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(journalService.getMoodTrend(client.getId(), from, to));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse(e.getMessage()));
+        }
+    }
+
+    // Психолог смотрит динамику настроения своего клиента
+    @GetMapping("/client/{clientId}/mood-trend")
+    @PreAuthorize("hasRole('PSYCHOLOGIST')")
+    public ResponseEntity<?> getClientMoodTrend(
+            @AuthenticationPrincipal Psychologist psychologist,
+            @PathVariable Long clientId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(journalService.getMoodTrendForPsychologist(
+                    psychologist.getId(), clientId, from, to));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponse(e.getMessage()));
+        }
+    }
+
     @Data
     public static class JournalEntryRequest {
         private String content;
@@ -186,4 +232,11 @@ public class JournalController {
         private String mostCommonMood;
         private List<String> mostUsedTags;
     }
-}
\ No newline at end of file
+
+    @Data
+    public static class MoodTrendPoint {
+        private LocalDate date;
+        private String mood; // null — запись без настроения
+        private long count;
+    }
+}
@@ -1,5 +1,6 @@
 package com.psychology.controller;
 
+import com.psychology.cache.PrincipalCache;
 import com.psychology.model.entity.Psychologist;
 import com.psychology.model.entity.Client;
 import com.psychology.dto.PhoneRequest;
@@ -74,11 +75,9 @@ public class ProfileController {
     }
 
     @GetMapping("/verification-status")
-    public ResponseEntity<?> getVerificationStatus(@AuthenticationPrincipal Object user) {
-        if (user instanceof Psychologist psychologist) {
-            return ResponseEntity.ok(new VerificationStatusResponse(psychologist.isVerified()));
-        }
-        return ResponseEntity.ok(new VerificationStatusResponse(true));
+    public ResponseEntity<?> getVerificationStatus(PrincipalCache.PrincipalSnapshot user) {
+        // Страница ожидания опрашивает этот адрес — статус читается из снимка principal, без запроса в БД
+        return ResponseEntity.ok(new VerificationStatusResponse(user == null || user.verified()));
     }
 
     @PostMapping("/phone/send-otp")
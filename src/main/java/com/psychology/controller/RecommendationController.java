@@ -6,6 +6,7 @@ import com.psychology.model.entity.Recommendation;
 import com.psychology.service.RecommendationService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +22,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class RecommendationController {
 
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final RecommendationService recommendationService;
 
     // Психолог создает рекомендацию для клиента
@@ -108,11 +111,15 @@ public class RecommendationController {
             @RequestParam(required = false) Boolean completed,
             @RequestParam(required = false) Boolean overdue,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<Recommendation> recommendations = recommendationService.getClientRecommendations(
-                    psychologist, clientId, completed, overdue, from, to);
-            return ResponseEntity.ok(recommendations);
+            Page<Recommendation> recommendations = recommendationService.getClientRecommendations(
+                    psychologist, clientId, completed, overdue, from, to, page, size);
+            return ResponseEntity.ok()
+                    .header(TOTAL_COUNT_HEADER, String.valueOf(recommendations.getTotalElements()))
+                    .body(recommendations.getContent());
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(new ApiResponse(e.getMessage()));
@@ -127,19 +134,27 @@ public class RecommendationController {
             @RequestParam(required = false) Boolean completed,
             @RequestParam(required = false) Boolean overdue,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
-        List<Recommendation> recommendations = recommendationService.getMyRecommendations(
-                client, completed, overdue, from, to);
-        return ResponseEntity.ok(recommendations);
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        Page<Recommendation> recommendations = recommendationService.getMyRecommendations(
+                client, completed, overdue, from, to, page, size);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(recommendations.getTotalElements()))
+                .body(recommendations.getContent());
     }
 
     // Психолог получает все просроченные рекомендации
     @GetMapping("/overdue")
     @PreAuthorize("hasRole('PSYCHOLOGIST')")
     public ResponseEntity<List<Recommendation>> getOverdueRecommendations(
-            @AuthenticationPrincipal Psychologist psychologist) {
-        List<Recommendation> recommendations = recommendationService.getOverdueRecommendations(psychologist);
-        return ResponseEntity.ok(recommendations);
+            @AuthenticationPrincipal Psychologist psychologist,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        Page<Recommendation> recommendations = recommendationService.getOverdueRecommendations(psychologist, page, size);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(recommendations.getTotalElements()))
+                .body(recommendations.getContent());
     }
 
     // Статистика по рекомендациям
@@ -0,0 +1,57 @@
+package com.psychology.controller;
+
+import com.psychology.cache.PrincipalCache;
+import com.psychology.repository.FullTextHit;
+import com.psychology.service.SearchService;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+
+    // Полнотекстовый поиск: ?q=сон&source=JOURNAL&source=MESSAGE&clientId=...
+    @GetMapping
+    public ResponseEntity<?> search(
+            PrincipalCache.PrincipalSnapshot user,
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Long clientId,
+            @RequestParam(value = "source", required = false) List<FullTextHit.Source> sources,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        try {
+            Set<FullTextHit.Source> sourceSet = sources == null || sources.isEmpty()
+                    ? EnumSet.allOf(FullTextHit.Source.class) : EnumSet.copyOf(sources);
+            Page<FullTextHit> hits = searchService.search(user, query, clientId, sourceSet, page, size);
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(hits.getTotalElements()))
+                    .body(hits.getContent());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse(e.getMessage()));
+        }
+    }
+
+    @Data
+    public static class ApiResponse {
+        private String message;
+        private LocalDateTime timestamp;
+
+        public ApiResponse(String message) {
+            this.message = message;
+            this.timestamp = LocalDateTime.now();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class ChatDTO {
 
@@ -36,11 +37,50 @@ public class ChatDTO {
         private Long otherUserId;
     }
 
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ConversationPage {
+        private List<MessageResponse> messages; // в хронологическом порядке
+        private String nextCursor; // передать в before для загрузки более старых сообщений
+        private boolean hasMore;
+    }
+
+    // Строка списка чатов
+    @Data
+    public static class ConversationSummaryResponse {
+        private Long peerId;
+        private String peerName;
+        private String peerRole;
+        private Long lastMessageId;
+        private String lastMessageSnippet;
+        private LocalDateTime lastMessageAt;
+        private boolean lastMessageMine; // последнее сообщение отправил текущий пользователь
+        private int unreadCount;
+    }
+
     @Data
     public static class MarkAsReadRequest {
         private Long messageId;
     }
 
+    @Data
+    public static class MarkReadUpToRequest {
+        private Long peerId; // для REST берется из пути
+        private Long upToMessageId;
+    }
+
+    // Одно подтверждение прочтения на пачку сообщений
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ReadReceipt {
+        private Long readerId;
+        private Long upToMessageId;
+        private int readCount;
+        private LocalDateTime readAt;
+    }
+
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
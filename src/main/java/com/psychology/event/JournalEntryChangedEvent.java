@@ -0,0 +1,7 @@
+package com.psychology.event;
+
+/**
+ * Запись в дневнике создана, изменена или удалена.
+ */
+public record JournalEntryChangedEvent(Long entryId, Long clientId) {
+}
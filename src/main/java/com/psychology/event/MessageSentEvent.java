@@ -0,0 +1,7 @@
+package com.psychology.event;
+
+/**
+ * Отправлено новое сообщение в чате.
+ */
+public record MessageSentEvent(Long messageId, Long senderId, Long receiverId) {
+}
@@ -0,0 +1,7 @@
+package com.psychology.event;
+
+/**
+ * Получатель прочитал сообщения отправителя (count — сколько было непрочитанных).
+ */
+public record MessagesReadEvent(Long readerId, Long senderId, int count) {
+}
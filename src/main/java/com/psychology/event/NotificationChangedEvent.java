@@ -0,0 +1,16 @@
+package com.psychology.event;
+
+/**
+ * Уведомления пользователя изменились (новое, прочитано, удалено).
+ * unreadDelta — изменение числа непрочитанных; unreadReset — прочитаны все.
+ */
+public record NotificationChangedEvent(Long userId, int unreadDelta, boolean unreadReset) {
+
+    public static NotificationChangedEvent unreadChanged(Long userId, int unreadDelta) {
+        return new NotificationChangedEvent(userId, unreadDelta, false);
+    }
+
+    public static NotificationChangedEvent allRead(Long userId) {
+        return new NotificationChangedEvent(userId, 0, true);
+    }
+}
@@ -0,0 +1,7 @@
+package com.psychology.event;
+
+/**
+ * В outbox записаны новые сообщения; после коммита будит диспетчер доставки.
+ */
+public record OutboxEnqueuedEvent(int count) {
+}
@@ -0,0 +1,7 @@
+package com.psychology.event;
+
+/**
+ * Рекомендация создана, изменена, выполнена или удалена.
+ */
+public record RecommendationChangedEvent(Long recommendationId, Long psychologistId, Long clientId) {
+}
@@ -0,0 +1,12 @@
+package com.psychology.event;
+
+import com.psychology.model.entity.Session;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сеанс создан, изменен или отменен.
+ */
+public record SessionChangedEvent(Long sessionId, Long psychologistId, Long clientId,
+                                  LocalDateTime scheduledAt, Session.SessionStatus status) {
+}
@@ -0,0 +1,8 @@
+package com.psychology.event;
+
+/**
+ * Данные учетной записи, из которых строится principal, изменились
+ * (телефон, профиль, верификация, удаление). phone — прежний номер, если он менялся.
+ */
+public record UserAccountChangedEvent(Long userId, String phone) {
+}
@@ -11,7 +11,9 @@ import lombok.EqualsAndHashCode;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "clients")
+@Table(name = "clients", indexes = {
+        @Index(name = "idx_clients_psychologist", columnList = "psychologist_id")
+})
 @Data
 @EqualsAndHashCode(callSuper = true)
 public class Client extends User {
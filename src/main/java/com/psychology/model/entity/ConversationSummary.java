@@ -0,0 +1,48 @@
+package com.psychology.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка чатов: последняя реплика и число непрочитанных в диалоге user ↔ peer.
+ * На каждый диалог две строки — по одной на каждого участника.
+ */
+@Entity
+@Table(name = "conversation_summaries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_conversation_summaries_user_peer",
+                columnNames = {"user_id", "peer_id"}),
+        indexes = @Index(name = "idx_conversation_summaries_user_last", columnList = "user_id, last_message_at"))
+@Data
+public class ConversationSummary {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "peer_id", nullable = false)
+    private User peer;
+
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+
+    @Column(name = "last_message_snippet", length = 200)
+    private String lastMessageSnippet;
+
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(name = "last_sender_id", nullable = false)
+    private Long lastSenderId;
+
+    @Column(name = "unread_count", nullable = false)
+    private int unreadCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -11,7 +11,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "journal_entries")
+@Table(name = "journal_entries", indexes = {
+        // Очистка по сроку хранения идет пачками по возрастанию created_at
+        @Index(name = "idx_journal_entries_created_at", columnList = "created_at, id")
+})
 @Data
 public class JournalEntry {
     @Id
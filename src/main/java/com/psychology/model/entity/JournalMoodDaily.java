@@ -0,0 +1,34 @@
+package com.psychology.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Дневная сводка дневника: сколько записей с данным настроением клиент сделал за день.
+ * Записи без настроения хранятся с mood = ''. Ведется инкрементально в JournalService.
+ */
+@Entity
+@Table(name = "journal_mood_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_journal_mood_daily_client_date_mood",
+                columnNames = {"client_id", "entry_date", "mood"}))
+@Data
+public class JournalMoodDaily {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "client_id", nullable = false)
+    private Client client;
+
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate;
+
+    @Column(nullable = false)
+    private String mood;
+
+    @Column(name = "entry_count", nullable = false)
+    private int entryCount;
+}
@@ -7,7 +7,11 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        // Keyset-пагинация переписки: (sender, receiver) + (sent_at, id)
+        @Index(name = "idx_messages_conversation_keyset", columnList = "sender_id, receiver_id, sent_at, id"),
+        @Index(name = "idx_messages_receiver_unread", columnList = "receiver_id, is_read")
+})
 @Data
 public class Message {
     @Id
@@ -7,7 +7,10 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_notifications_user_read", columnList = "user_id, is_read")
+})
 @Data
 public class Notification {
     @Id
@@ -35,6 +38,10 @@ public class Notification {
     @Column(name = "related_entity_type")
     private String relatedEntityType; // Тип связанной сущности: SESSION, MESSAGE, RECOMMENDATION, etc.
 
+    // Ключ идемпотентности (напоминание по сеансу и т.п.); у обычных уведомлений NULL
+    @Column(name = "dedup_key", unique = true, length = 128)
+    private String dedupKey;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
@@ -0,0 +1,49 @@
+package com.psychology.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Исходящее STOMP-сообщение, записанное в той же транзакции, что и бизнес-изменение.
+ * Доставляет OutboxDispatcher после коммита; доставленные строки удаляются.
+ */
+@Entity
+@Table(name = "outbox_messages", indexes = {
+        @Index(name = "idx_outbox_messages_due", columnList = "status, next_attempt_at, id")
+})
+@Data
+public class OutboxMessage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String destination;
+
+    // JSON в том виде, в каком он уйдет клиенту
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum Status {
+        PENDING, // ждет доставки или повтора
+        FAILED   // исчерпаны попытки, оставлено для разбора
+    }
+}
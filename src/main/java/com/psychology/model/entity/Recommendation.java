@@ -11,7 +11,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "recommendations")
+@Table(name = "recommendations", indexes = {
+        @Index(name = "idx_recommendations_client_completed_deadline", columnList = "client_id, completed, deadline"),
+        @Index(name = "idx_recommendations_psychologist_completed_deadline",
+                columnList = "psychologist_id, completed, deadline")
+})
 @Data
 public class Recommendation {
     @Id
@@ -6,7 +6,10 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "sessions")
+@Table(name = "sessions", indexes = {
+        @Index(name = "idx_sessions_psychologist_scheduled", columnList = "psychologist_id, scheduled_at"),
+        @Index(name = "idx_sessions_client_scheduled", columnList = "client_id, scheduled_at")
+})
 @Data
 public class Session {
     @Id
@@ -0,0 +1,231 @@
+package com.psychology.outbox;
+
+import com.psychology.event.OutboxEnqueuedEvent;
+import com.psychology.model.entity.OutboxMessage;
+import com.psychology.repository.OutboxMessageRepository;
+import com.psychology.websocket.ClusterMessagingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Доставка сообщений из outbox. Будится после коммита транзакции, записавшей сообщения,
+ * и периодическим опросом (повторы, сообщения упавших узлов).
+ * Пачка забирается с lease (SKIP LOCKED), группируется по адресату; группы отправляются
+ * параллельно на виртуальных потоках (не больше max-concurrency одновременно), внутри группы — по порядку.
+ * Доставка at-least-once: строка удаляется только после отправки.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final ClusterMessagingService clusterMessagingService;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.max-concurrency:32}")
+    private int maxConcurrency;
+
+    @Value("${app.outbox.lease-seconds:30}")
+    private long leaseSeconds;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.backoff-base-ms:1000}")
+    private long backoffBaseMs;
+
+    @Value("${app.outbox.backoff-max-ms:300000}")
+    private long backoffMaxMs;
+
+    private ExecutorService executor;
+    private Semaphore permits;
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private final AtomicBoolean wakeRequested = new AtomicBoolean(false);
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("outbox-", 0).factory());
+        permits = new Semaphore(Math.max(maxConcurrency, 1));
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnqueued(OutboxEnqueuedEvent event) {
+        wakeUp();
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-ms:1000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    public OutboxStats getStats() {
+        return new OutboxStats(delivered.get(), retried.get(), failed.get(),
+                outboxMessageRepository.countByStatus(OutboxMessage.Status.PENDING),
+                outboxMessageRepository.countByStatus(OutboxMessage.Status.FAILED));
+    }
+
+    // Не блокирует вызывающий поток: разбор очереди всегда идет на виртуальном потоке
+    private void wakeUp() {
+        wakeRequested.set(true);
+        if (!draining.compareAndSet(false, true)) {
+            return; // текущий проход заметит флаг и повторит
+        }
+        try {
+            executor.execute(this::drainLoop);
+        } catch (RejectedExecutionException e) {
+            draining.set(false); // остановка приложения
+        }
+    }
+
+    private void drainLoop() {
+        try {
+            while (wakeRequested.getAndSet(false)) {
+                int claimed;
+                do {
+                    claimed = drainOnce();
+                } while (claimed >= batchSize);
+            }
+        } catch (RuntimeException e) {
+            log.error("Outbox dispatch failed, will retry on next poll: {}", e.getMessage());
+        } finally {
+            draining.set(false);
+            // Сигнал мог прийти между последней проверкой флага и его сбросом
+            if (wakeRequested.get()) {
+                wakeUp();
+            }
+        }
+    }
+
+    private int drainOnce() {
+        List<OutboxMessage> batch = outboxMessageRepository.claimDue(batchSize, Duration.ofSeconds(leaseSeconds));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, List<OutboxMessage>> byDestination = batch.stream()
+                .collect(Collectors.groupingBy(OutboxMessage::getDestination, LinkedHashMap::new, Collectors.toList()));
+
+        List<Future<?>> futures = new ArrayList<>(byDestination.size());
+        for (List<OutboxMessage> group : byDestination.values()) {
+            permits.acquireUninterruptibly();
+            try {
+                futures.add(executor.submit(() -> {
+                    try {
+                        deliver(group);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        // Следующую пачку берем только после этой — иначе сообщения одного адресата могут обогнать друг друга
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                log.error("Outbox delivery task failed: {}", e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return batch.size();
+    }
+
+    // Сообщения адресата — по порядку; после первой ошибки хвост откладывается вместе с упавшим
+    private void deliver(List<OutboxMessage> group) {
+        List<Long> sent = new ArrayList<>(group.size());
+        for (int i = 0; i < group.size(); i++) {
+            OutboxMessage message = group.get(i);
+            try {
+                clusterMessagingService.sendJson(message.getDestination(), message.getPayload());
+                sent.add(message.getId());
+            } catch (RuntimeException e) {
+                LocalDateTime retryAt = recordFailure(message, e);
+                List<Long> rest = group.subList(i + 1, group.size()).stream().map(OutboxMessage::getId).toList();
+                if (!rest.isEmpty()) {
+                    outboxMessageRepository.reschedule(rest, retryAt);
+                }
+                break;
+            }
+        }
+        if (!sent.isEmpty()) {
+            outboxMessageRepository.deleteByIdIn(sent);
+            delivered.addAndGet(sent.size());
+        }
+    }
+
+    private LocalDateTime recordFailure(OutboxMessage message, RuntimeException e) {
+        int attempts = message.getAttempts() + 1;
+        boolean exhausted = attempts >= maxAttempts;
+        LocalDateTime nextAttemptAt = exhausted ? LocalDateTime.now() : LocalDateTime.now().plus(backoff(attempts));
+        String error = e.getMessage() != null && e.getMessage().length() > MAX_ERROR_LENGTH
+                ? e.getMessage().substring(0, MAX_ERROR_LENGTH) : e.getMessage();
+
+        outboxMessageRepository.markAttemptFailed(message.getId(), nextAttemptAt, error,
+                exhausted ? OutboxMessage.Status.FAILED : OutboxMessage.Status.PENDING);
+        if (exhausted) {
+            failed.incrementAndGet();
+            log.error("Outbox message {} to {} failed after {} attempts: {}",
+                    message.getId(), message.getDestination(), attempts, error);
+        } else {
+            retried.incrementAndGet();
+            log.warn("Outbox message {} to {} failed (attempt {}), retry at {}: {}",
+                    message.getId(), message.getDestination(), attempts, nextAttemptAt, error);
+        }
+        return nextAttemptAt;
+    }
+
+    private Duration backoff(int attempts) {
+        long delay = backoffBaseMs << Math.min(attempts - 1, 20);
+        return Duration.ofMillis(Math.min(delay, backoffMaxMs));
+    }
+
+    public record OutboxStats(long delivered, long retried, long failed, long pending, long dead) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.psychology.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psychology.event.OutboxEnqueuedEvent;
+import com.psychology.model.entity.OutboxMessage;
+import com.psychology.repository.OutboxMessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Постановка STOMP-сообщений в outbox в транзакции вызывающего кода.
+ * Откат транзакции откатывает и сообщение; доставку после коммита выполняет OutboxDispatcher,
+ * так что запись в БД не ждет WebSocket.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public void enqueue(String destination, Object payload) {
+        enqueueAll(List.of(new Outgoing(destination, payload)));
+    }
+
+    @Transactional
+    public void enqueueAll(List<Outgoing> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> rows = messages.stream().map(outgoing -> {
+            OutboxMessage message = new OutboxMessage();
+            message.setDestination(outgoing.destination());
+            message.setPayload(toJson(outgoing.payload()));
+            message.setNextAttemptAt(now);
+            message.setCreatedAt(now);
+            return message;
+        }).toList();
+
+        outboxMessageRepository.insertAll(rows);
+        eventPublisher.publishEvent(new OutboxEnqueuedEvent(rows.size()));
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload", e);
+        }
+    }
+
+    public record Outgoing(String destination, Object payload) {
+    }
+}
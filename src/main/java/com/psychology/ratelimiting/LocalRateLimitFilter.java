@@ -0,0 +1,108 @@
+package com.psychology.ratelimiting;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Приблизительный фильтр на узле перед Redis.
+ * Локальный bucket с теми же параметрами видит только часть запросов ключа, поэтому
+ * если пуст он, пуст и общий — отказ без round trip. Кроме того, отказ из Redis
+ * запоминается до retry-after, и поток с нескольких узлов тоже не доходит до Redis.
+ */
+@Component
+public class LocalRateLimitFilter {
+
+    @Value("${app.rate-limit.local.max-keys:100000}")
+    private int maxKeys;
+
+    private final Map<String, LocalBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Отказ, если ключ заблокирован или локальный bucket пуст; иначе null — решает Redis.
+     */
+    public RateLimitDecision tryTake(RateLimitPolicy policy, String key, long nowMs) {
+        LocalBucket bucket = buckets.get(bucketKey(policy, key));
+        if (bucket == null) {
+            evictIfNeeded(nowMs);
+            bucket = buckets.computeIfAbsent(bucketKey(policy, key), k -> new LocalBucket(policy, nowMs));
+        }
+        return bucket.tryTake(nowMs);
+    }
+
+    /**
+     * Общий bucket отказал — до retry-after отвечаем отказом локально.
+     */
+    public void block(RateLimitPolicy policy, String key, long untilMs) {
+        LocalBucket bucket = buckets.get(bucketKey(policy, key));
+        if (bucket != null) {
+            bucket.blockUntil(untilMs);
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private static String bucketKey(RateLimitPolicy policy, String key) {
+        return policy.name() + ":" + key;
+    }
+
+    // Сначала выбрасываем полностью восстановившиеся bucket'ы — они ничего не помнят
+    private void evictIfNeeded(long nowMs) {
+        if (buckets.size() < maxKeys) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> bucket.isIdle(nowMs));
+        Iterator<String> keys = buckets.keySet().iterator();
+        while (buckets.size() >= maxKeys && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static final class LocalBucket {
+        private final int capacity;
+        private final long periodMs;
+        private double tokens;
+        private long updatedAt;
+        private long blockedUntil;
+
+        LocalBucket(RateLimitPolicy policy, long nowMs) {
+            this.capacity = policy.capacity();
+            this.periodMs = policy.periodMillis();
+            this.tokens = capacity;
+            this.updatedAt = nowMs;
+        }
+
+        synchronized RateLimitDecision tryTake(long nowMs) {
+            if (nowMs < blockedUntil) {
+                return RateLimitDecision.reject(blockedUntil - nowMs);
+            }
+            refill(nowMs);
+            if (tokens < 1) {
+                return RateLimitDecision.reject((long) Math.ceil((1 - tokens) * periodMs / capacity));
+            }
+            tokens -= 1;
+            return null;
+        }
+
+        synchronized void blockUntil(long untilMs) {
+            blockedUntil = Math.max(blockedUntil, untilMs);
+        }
+
+        synchronized boolean isIdle(long nowMs) {
+            refill(nowMs);
+            return nowMs >= blockedUntil && tokens >= capacity;
+        }
+
+        private void refill(long nowMs) {
+            long elapsed = Math.max(0, nowMs - updatedAt);
+            tokens = Math.min(capacity, tokens + (double) elapsed * capacity / periodMs);
+            updatedAt = nowMs;
+        }
+    }
+}
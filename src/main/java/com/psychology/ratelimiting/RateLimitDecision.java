@@ -0,0 +1,19 @@
+package com.psychology.ratelimiting;
+
+/**
+ * Результат проверки лимита. retryAfterMs > 0 только для отказа.
+ */
+public record RateLimitDecision(boolean allowed, long remaining, long retryAfterMs) {
+
+    public static RateLimitDecision allow(long remaining) {
+        return new RateLimitDecision(true, remaining, 0);
+    }
+
+    public static RateLimitDecision reject(long retryAfterMs) {
+        return new RateLimitDecision(false, 0, Math.max(retryAfterMs, 1));
+    }
+
+    public long retryAfterSeconds() {
+        return (retryAfterMs + 999) / 1000;
+    }
+}
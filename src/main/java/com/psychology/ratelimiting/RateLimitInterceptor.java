@@ -1,66 +1,63 @@
 package com.psychology.ratelimiting;
 
+import com.psychology.model.entity.User;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import java.time.Duration;
-import java.util.concurrent.TimeUnit;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class RateLimitInterceptor implements HandlerInterceptor {
 
-    private final StringRedisTemplate redisTemplate;
-
-    // Лимиты запросов
-    private static final int AUTH_LIMIT = 10; // 10 запросов в минуту на авторизацию
-    private static final int OTP_LIMIT = 3; // 3 запроса OTP в минуту
-    private static final Duration WINDOW = Duration.ofMinutes(1);
+    private final RateLimitPolicies rateLimitPolicies;
+    private final RateLimiter rateLimiter;
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        String ip = getClientIp(request);
-        String path = request.getRequestURI();
-        String key;
-        int limit;
+        String path = request.getRequestURI().substring(request.getContextPath().length());
 
-        // Определяем лимит в зависимости от пути
-        if (path.contains("/auth/send-otp")) {
-            key = "rate_limit:otp:" + ip;
-            limit = OTP_LIMIT;
-        } else if (path.contains("/auth/")) {
-            key = "rate_limit:auth:" + ip;
-            limit = AUTH_LIMIT;
-        } else {
-            return true; // Для других путей не применяем rate limiting
+        // Политика определяется маршрутом; для остальных путей rate limiting не применяем
+        Optional<RateLimitPolicies.Route> route = rateLimitPolicies.resolve(request.getMethod(), path);
+        if (route.isEmpty()) {
+            return true;
         }
 
-        // Проверяем количество запросов
-        Long current = redisTemplate.opsForValue().increment(key);
-        if (current == null) {
-            // Ошибка Redis, пропускаем
+        String key = resolveKey(route.get().keyType(), request);
+        RateLimitDecision decision = rateLimiter.check(route.get().policy(), key);
+        if (decision.allowed()) {
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
             return true;
         }
 
-        if (current == 1) {
-            // Первый запрос, устанавливаем TTL
-            redisTemplate.expire(key, WINDOW.getSeconds(), TimeUnit.SECONDS);
-        }
+        log.warn("Rate limit exceeded: policy {}, key {}, path {}", route.get().policy(), key, path);
+        response.setStatus(429); // Too Many Requests
+        response.setHeader("Retry-After", String.valueOf(decision.retryAfterSeconds()));
+        response.getWriter().write("Rate limit exceeded. Please try again later.");
+        return false;
+    }
 
-        if (current > limit) {
-            log.warn("Rate limit exceeded for IP: {}, path: {}", ip, path);
-            response.setStatus(429); // Too Many Requests
-            response.getWriter().write("Rate limit exceeded. Please try again later.");
-            return false;
+    // Авторизованные маршруты считаем по пользователю: за одним NAT могут быть разные клиенты
+    private String resolveKey(RateLimitPolicies.KeyType keyType, HttpServletRequest request) {
+        if (keyType == RateLimitPolicies.KeyType.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                if (authentication.getPrincipal() instanceof User user) {
+                    return "user:" + user.getId();
+                }
+                return "user:" + authentication.getName();
+            }
         }
-
-        return true;
+        return "ip:" + getClientIp(request);
     }
 
     private String getClientIp(HttpServletRequest request) {
@@ -70,4 +67,4 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         }
         return request.getRemoteAddr();
     }
-}
\ No newline at end of file
+}
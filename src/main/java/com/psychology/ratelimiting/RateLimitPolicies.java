@@ -0,0 +1,95 @@
+package com.psychology.ratelimiting;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Политики лимитов и привязка к маршрутам.
+ * Параметры политики: app.rate-limit.policies.<name>.capacity / period-seconds.
+ * Первый подходящий маршрут выигрывает, поэтому более узкие пути идут раньше.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitPolicies {
+
+    public static final String AUTH = "auth";
+    public static final String OTP = "otp";
+    public static final String CHAT_SEND = "chat-send";
+    public static final String FILE_UPLOAD = "file-upload";
+    public static final String JOURNAL_CREATE = "journal-create";
+
+    // Значения по умолчанию, если политика не задана в настройках
+    private static final Map<String, RateLimitPolicy> DEFAULTS = Map.of(
+            AUTH, new RateLimitPolicy(AUTH, 10, Duration.ofMinutes(1)),
+            OTP, new RateLimitPolicy(OTP, 3, Duration.ofMinutes(1)),
+            CHAT_SEND, new RateLimitPolicy(CHAT_SEND, 30, Duration.ofSeconds(10)),
+            FILE_UPLOAD, new RateLimitPolicy(FILE_UPLOAD, 10, Duration.ofMinutes(1)),
+            JOURNAL_CREATE, new RateLimitPolicy(JOURNAL_CREATE, 10, Duration.ofMinutes(1))
+    );
+
+    private static final List<Route> ROUTES = List.of(
+            new Route(null, "/api/v1/auth/refresh", null, null),
+            new Route(null, "/api/v1/auth/send-otp", OTP, KeyType.IP),
+            new Route(null, "/api/v1/otp/**", OTP, KeyType.IP),
+            new Route(HttpMethod.POST, "/api/v1/profile/phone/send-otp", OTP, KeyType.USER),
+            new Route(null, "/api/v1/auth/**", AUTH, KeyType.IP),
+            new Route(HttpMethod.POST, "/api/v1/chat/send", CHAT_SEND, KeyType.USER),
+            new Route(HttpMethod.POST, "/api/v1/files/upload", FILE_UPLOAD, KeyType.USER),
+            new Route(HttpMethod.POST, "/api/v1/journal", JOURNAL_CREATE, KeyType.USER)
+    );
+
+    private final Environment environment;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, RateLimitPolicy> policies = new ConcurrentHashMap<>();
+
+    /**
+     * Маршрут для запроса; пусто, если путь не ограничивается.
+     */
+    public Optional<Route> resolve(String method, String path) {
+        for (Route route : ROUTES) {
+            if (route.method() != null && !route.method().matches(method)) {
+                continue;
+            }
+            if (pathMatcher.match(route.pattern(), path)) {
+                return route.policy() == null ? Optional.empty() : Optional.of(route);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public RateLimitPolicy policy(String name) {
+        return policies.computeIfAbsent(name, this::load);
+    }
+
+    private RateLimitPolicy load(String name) {
+        RateLimitPolicy defaults = DEFAULTS.get(name);
+        if (defaults == null) {
+            throw new IllegalArgumentException("Unknown rate limit policy: " + name);
+        }
+        String prefix = "app.rate-limit.policies." + name + ".";
+        int capacity = environment.getProperty(prefix + "capacity", Integer.class, defaults.capacity());
+        long periodSeconds = environment.getProperty(prefix + "period-seconds", Long.class,
+                defaults.period().getSeconds());
+        if (capacity <= 0 || periodSeconds <= 0) {
+            throw new IllegalArgumentException("Rate limit policy " + name + " must have positive capacity and period");
+        }
+        return new RateLimitPolicy(name, capacity, Duration.ofSeconds(periodSeconds));
+    }
+
+    public enum KeyType {
+        IP, USER
+    }
+
+    // policy = null — путь явно исключен из ограничений
+    public record Route(HttpMethod method, String pattern, String policy, KeyType keyType) {
+    }
+}
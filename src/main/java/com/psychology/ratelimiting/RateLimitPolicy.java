@@ -0,0 +1,14 @@
+package com.psychology.ratelimiting;
+
+import java.time.Duration;
+
+/**
+ * Token bucket: capacity токенов, полностью восполняется за period.
+ * Запрос тратит один токен; всплеск не больше capacity, средняя скорость — capacity / period.
+ */
+public record RateLimitPolicy(String name, int capacity, Duration period) {
+
+    public long periodMillis() {
+        return period.toMillis();
+    }
+}
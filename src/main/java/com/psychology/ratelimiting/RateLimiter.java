@@ -0,0 +1,70 @@
+package com.psychology.ratelimiting;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Точка входа лимитирования: локальный пре-фильтр, затем общий token bucket в Redis.
+ * При недоступности Redis запрос пропускается — как и раньше, лимит не должен ронять вход.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimiter {
+
+    private final RateLimitPolicies policies;
+    private final LocalRateLimitFilter localFilter;
+    private final RedisTokenBucket redisTokenBucket;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong rejectedLocally = new AtomicLong();
+    private final AtomicLong rejectedByRedis = new AtomicLong();
+    private final AtomicLong redisErrors = new AtomicLong();
+
+    public RateLimitDecision check(String policyName, String key) {
+        RateLimitPolicy policy = policies.policy(policyName);
+        if (!enabled) {
+            return RateLimitDecision.allow(policy.capacity());
+        }
+
+        long now = System.currentTimeMillis();
+        RateLimitDecision local = localFilter.tryTake(policy, key, now);
+        if (local != null) {
+            rejectedLocally.incrementAndGet();
+            return local;
+        }
+
+        RateLimitDecision decision;
+        try {
+            decision = redisTokenBucket.take(policy, key);
+        } catch (Exception e) {
+            redisErrors.incrementAndGet();
+            log.warn("Rate limit check failed for policy {}, allowing: {}", policyName, e.getMessage());
+            return RateLimitDecision.allow(0);
+        }
+
+        if (decision.allowed()) {
+            allowed.incrementAndGet();
+        } else {
+            rejectedByRedis.incrementAndGet();
+            localFilter.block(policy, key, now + decision.retryAfterMs());
+        }
+        return decision;
+    }
+
+    public RateLimitStats getStats() {
+        return new RateLimitStats(allowed.get(), rejectedLocally.get(), rejectedByRedis.get(),
+                redisErrors.get(), localFilter.size());
+    }
+
+    public record RateLimitStats(long allowed, long rejectedLocally, long rejectedByRedis,
+                                 long redisErrors, int localKeys) {
+    }
+}
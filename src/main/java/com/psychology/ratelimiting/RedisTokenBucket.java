@@ -0,0 +1,63 @@
+package com.psychology.ratelimiting;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Общий для кластера token bucket: чтение, пополнение, списание и TTL — один Lua-скрипт,
+ * т.е. один round trip и никаких ключей без TTL при падении между командами.
+ * Время берется из Redis (TIME), чтобы сдвиг часов между узлами не влиял на пополнение.
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisTokenBucket {
+
+    // Отдельный префикс: старые ключи rate_limit:* были строками INCR, здесь hash
+    private static final String KEY_PREFIX = "rate_limit:tb:";
+
+    // ARGV: capacity, period_ms. Ответ: {allowed, remaining, retry_after_ms}
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> TAKE_SCRIPT = new DefaultRedisScript<>(
+            "local capacity = tonumber(ARGV[1]) " +
+            "local period = tonumber(ARGV[2]) " +
+            "local t = redis.call('TIME') " +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) " +
+            "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts') " +
+            "local tokens = tonumber(state[1]) " +
+            "local ts = tonumber(state[2]) " +
+            "if tokens == nil or ts == nil then tokens = capacity; ts = now end " +
+            "local elapsed = now - ts " +
+            "if elapsed < 0 then elapsed = 0 end " +
+            "tokens = math.min(capacity, tokens + elapsed * capacity / period) " +
+            "local allowed = 0 " +
+            "local retry = 0 " +
+            "if tokens >= 1 then " +
+            "  tokens = tokens - 1 " +
+            "  allowed = 1 " +
+            "else " +
+            "  retry = math.ceil((1 - tokens) * period / capacity) " +
+            "end " +
+            "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now)) " +
+            "redis.call('PEXPIRE', KEYS[1], math.ceil((capacity - tokens) * period / capacity) + 1000) " +
+            "return {allowed, math.floor(tokens), retry}", List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RateLimitDecision take(RateLimitPolicy policy, String key) {
+        List<?> result = redisTemplate.execute(TAKE_SCRIPT,
+                Collections.singletonList(KEY_PREFIX + policy.name() + ":" + key),
+                String.valueOf(policy.capacity()), String.valueOf(policy.periodMillis()));
+        if (result == null || result.size() < 3) {
+            throw new IllegalStateException("Unexpected rate limit script result: " + result);
+        }
+        boolean allowed = ((Number) result.get(0)).longValue() == 1;
+        return allowed
+                ? RateLimitDecision.allow(((Number) result.get(1)).longValue())
+                : RateLimitDecision.reject(((Number) result.get(2)).longValue());
+    }
+}
@@ -0,0 +1,95 @@
+package com.psychology.repository;
+
+import com.psychology.model.entity.ConversationSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+
+    // Правило превью последнего сообщения — общее для ChatService и первичного заполнения:
+    // первые SNIPPET_LENGTH символов + "…", пустое или пробельное содержимое — "Вложение"
+    int SNIPPET_LENGTH = 120;
+    String SNIPPET_ELLIPSIS = "…";
+    String ATTACHMENT_SNIPPET = "Вложение";
+
+    // Список чатов: один запрос по индексу (user_id, last_message_at)
+    @Query("SELECT c FROM ConversationSummary c JOIN FETCH c.peer " +
+            "WHERE c.user.id = :userId ORDER BY c.lastMessageAt DESC, c.id DESC")
+    List<ConversationSummary> findInbox(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Вставка или обновление строки диалога новым сообщением.
+     * Последняя реплика меняется только на более новую (по id), счетчик увеличивается всегда —
+     * так параллельные отправки в один диалог не затирают друг друга.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO conversation_summaries " +
+            "(user_id, peer_id, last_message_id, last_message_snippet, last_message_at, last_sender_id, unread_count, updated_at) " +
+            "VALUES (:userId, :peerId, :messageId, :snippet, :sentAt, :senderId, :unreadIncrement, now()) " +
+            "ON CONFLICT (user_id, peer_id) DO UPDATE SET " +
+            "last_message_snippet = CASE WHEN conversation_summaries.last_message_id < EXCLUDED.last_message_id " +
+            "   THEN EXCLUDED.last_message_snippet ELSE conversation_summaries.last_message_snippet END, " +
+            "last_message_at = CASE WHEN conversation_summaries.last_message_id < EXCLUDED.last_message_id " +
+            "   THEN EXCLUDED.last_message_at ELSE conversation_summaries.last_message_at END, " +
+            "last_sender_id = CASE WHEN conversation_summaries.last_message_id < EXCLUDED.last_message_id " +
+            "   THEN EXCLUDED.last_sender_id ELSE conversation_summaries.last_sender_id END, " +
+            "last_message_id = GREATEST(conversation_summaries.last_message_id, EXCLUDED.last_message_id), " +
+            "unread_count = conversation_summaries.unread_count + EXCLUDED.unread_count, " +
+            "updated_at = now()",
+            nativeQuery = true)
+    void upsertLastMessage(@Param("userId") Long userId,
+                           @Param("peerId") Long peerId,
+                           @Param("messageId") Long messageId,
+                           @Param("snippet") String snippet,
+                           @Param("sentAt") LocalDateTime sentAt,
+                           @Param("senderId") Long senderId,
+                           @Param("unreadIncrement") int unreadIncrement);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE conversation_summaries SET unread_count = GREATEST(unread_count - :count, 0), " +
+            "updated_at = now() WHERE user_id = :userId AND peer_id = :peerId",
+            nativeQuery = true)
+    int decrementUnread(@Param("userId") Long userId,
+                        @Param("peerId") Long peerId,
+                        @Param("count") int count);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ConversationSummary c WHERE c.user.id = :userId OR c.peer.id = :userId")
+    void deleteAllByUserId(@Param("userId") Long userId);
+
+    /**
+     * Первичное заполнение из messages: по строке на каждую пару (участник, собеседник)
+     * с последним сообщением и точным числом непрочитанных.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO conversation_summaries " +
+            "(user_id, peer_id, last_message_id, last_message_snippet, last_message_at, last_sender_id, unread_count, updated_at) " +
+            "SELECT p.user_id, p.peer_id, m.id, " +
+            "   CASE WHEN m.content IS NULL OR m.content ~ '^\\s*$' THEN '" + ATTACHMENT_SNIPPET + "' " +
+            "       WHEN char_length(m.content) > " + SNIPPET_LENGTH + " " +
+            "       THEN LEFT(m.content, " + SNIPPET_LENGTH + ") || '" + SNIPPET_ELLIPSIS + "' " +
+            "       ELSE m.content END, m.sent_at, m.sender_id, " +
+            "   (SELECT COUNT(*) FROM messages u WHERE u.receiver_id = p.user_id AND u.sender_id = p.peer_id " +
+            "       AND u.is_read = false), now() " +
+            "FROM (SELECT x.user_id, x.peer_id, MAX(x.id) AS last_id FROM (" +
+            "   SELECT sender_id AS user_id, receiver_id AS peer_id, id FROM messages " +
+            "   UNION ALL SELECT receiver_id, sender_id, id FROM messages) x " +
+            "   GROUP BY x.user_id, x.peer_id) p " +
+            "JOIN messages m ON m.id = p.last_id " +
+            "ON CONFLICT (user_id, peer_id) DO NOTHING",
+            nativeQuery = true)
+    int backfillFromMessages();
+}
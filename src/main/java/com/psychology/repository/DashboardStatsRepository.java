@@ -0,0 +1,66 @@
+package com.psychology.repository;
+
+import com.psychology.model.entity.Client;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Агрегированные счетчики дашбордов: все показатели за один SQL-запрос
+ * вместо обхода клиентов в цикле.
+ */
+@Repository
+public interface DashboardStatsRepository extends org.springframework.data.repository.Repository<Client, Long> {
+
+    @Query(value = "SELECT " +
+            "(SELECT COUNT(*) FROM clients c WHERE c.psychologist_id = :psychologistId) AS totalClients, " +
+            "(SELECT COUNT(DISTINCT s.client_id) FROM sessions s JOIN clients c ON c.id = s.client_id " +
+            "   WHERE c.psychologist_id = :psychologistId " +
+            "   AND s.scheduled_at BETWEEN :now AND :activeUntil " +
+            "   AND (s.status IS NULL OR s.status NOT IN ('CANCELLED', 'COMPLETED'))) AS activeClients, " +
+            "(SELECT COUNT(*) FROM sessions s WHERE s.psychologist_id = :psychologistId " +
+            "   AND s.scheduled_at BETWEEN :todayStart AND :todayEnd) AS sessionsToday, " +
+            "(SELECT COUNT(*) FROM sessions s WHERE s.psychologist_id = :psychologistId " +
+            "   AND s.scheduled_at BETWEEN :todayStart AND :weekEnd) AS sessionsThisWeek, " +
+            "(SELECT COUNT(*) FROM recommendations r JOIN clients c ON c.id = r.client_id " +
+            "   WHERE c.psychologist_id = :psychologistId AND r.completed = false) AS pendingRecommendations, " +
+            "(SELECT COUNT(*) FROM messages m JOIN clients c ON c.id = m.receiver_id " +
+            "   WHERE c.psychologist_id = :psychologistId AND m.is_read = false) AS unreadMessages, " +
+            "(SELECT COUNT(*) FROM sessions s WHERE s.psychologist_id = :psychologistId " +
+            "   AND s.scheduled_at BETWEEN :monthStart AND :now AND s.status = 'COMPLETED') AS monthSessionsCompleted, " +
+            "(SELECT COUNT(*) FROM sessions s WHERE s.psychologist_id = :psychologistId " +
+            "   AND s.scheduled_at BETWEEN :monthStart AND :now " +
+            "   AND s.status IN ('SCHEDULED', 'CONFIRMED')) AS monthSessionsScheduled, " +
+            "(SELECT COUNT(*) FROM clients c WHERE c.psychologist_id = :psychologistId " +
+            "   AND c.linked_at BETWEEN :monthStart AND :now) AS monthNewClients",
+            nativeQuery = true)
+    PsychologistDashboardCounters getPsychologistCounters(@Param("psychologistId") Long psychologistId,
+                                                          @Param("now") LocalDateTime now,
+                                                          @Param("activeUntil") LocalDateTime activeUntil,
+                                                          @Param("todayStart") LocalDateTime todayStart,
+                                                          @Param("todayEnd") LocalDateTime todayEnd,
+                                                          @Param("weekEnd") LocalDateTime weekEnd,
+                                                          @Param("monthStart") LocalDateTime monthStart);
+
+    interface PsychologistDashboardCounters {
+        Long getTotalClients();
+
+        Long getActiveClients();
+
+        Long getSessionsToday();
+
+        Long getSessionsThisWeek();
+
+        Long getPendingRecommendations();
+
+        Long getUnreadMessages();
+
+        Long getMonthSessionsCompleted();
+
+        Long getMonthSessionsScheduled();
+
+        Long getMonthNewClients();
+    }
+}
@@ -0,0 +1,21 @@
+package com.psychology.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Результат полнотекстового поиска: запись дневника или сообщение чата.
+ * highlight — фрагмент текста, экранированный для HTML, совпадения обернуты в &lt;mark&gt;.
+ */
+public record FullTextHit(Source source,
+                          Long id,
+                          Long clientId,
+                          Long senderId,
+                          Long receiverId,
+                          LocalDateTime createdAt,
+                          double rank,
+                          String highlight) {
+
+    public enum Source {
+        JOURNAL, MESSAGE
+    }
+}
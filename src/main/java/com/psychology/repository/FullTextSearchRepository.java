@@ -0,0 +1,127 @@
+package com.psychology.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Полнотекстовый поиск по journal_entries.content и messages.content.
+ * Обе таблицы содержат сгенерированную колонку search_vector (russian + english) с GIN-индексом,
+ * см. db/schema-extras.sql. Область видимости передается готовой — проверки доступа делает SearchService.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FullTextSearchRepository {
+
+    // Запросы по каждой конфигурации отдельно нужны для ts_headline, объединенный — для поиска и ранга
+    private static final String QUERY_CTE = "WITH q AS (SELECT ru, en, ru || en AS query FROM (" +
+            "SELECT websearch_to_tsquery('russian', ?) AS ru, websearch_to_tsquery('english', ?) AS en) t) ";
+
+    private static final String CONTENT = "COALESCE(je.content, m.content, '')";
+
+    // Экранируем текст до ts_headline, чтобы в ответе были только наши теги <mark>
+    private static final String ESCAPED_CONTENT =
+            "replace(replace(replace(" + CONTENT + ", '&', '&amp;'), '<', '&lt;'), '>', '&gt;')";
+
+    private static final String HEADLINE_OPTIONS =
+            "StartSel=<mark>, StopSel=</mark>, MaxWords=30, MinWords=10, MaxFragments=2, FragmentDelimiter=\" … \"";
+
+    // Подсветка той конфигурацией, по которой запись нашлась: английский запрос, разобранный
+    // русским стеммером, ничего не выделит. При совпадении по обеим предпочитаем русскую
+    private static final String HEADLINE = "CASE WHEN to_tsvector('russian', " + CONTENT + ") @@ q.ru " +
+            "THEN ts_headline('russian', " + ESCAPED_CONTENT + ", q.ru, '" + HEADLINE_OPTIONS + "') " +
+            "ELSE ts_headline('english', " + ESCAPED_CONTENT + ", q.en, '" + HEADLINE_OPTIONS + "') END";
+
+    private static final RowMapper<FullTextHit> ROW_MAPPER = (rs, rowNum) -> {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new FullTextHit(
+                FullTextHit.Source.valueOf(rs.getString("source")),
+                rs.getLong("id"),
+                rs.getObject("client_id", Long.class),
+                rs.getObject("sender_id", Long.class),
+                rs.getObject("receiver_id", Long.class),
+                createdAt != null ? createdAt.toLocalDateTime() : null,
+                rs.getDouble("rank"),
+                rs.getString("highlight"));
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Область поиска. journalClientIds — чьи записи дневника видны;
+     * peerIds — собеседники userId, переписку с которыми можно искать.
+     * Пустые коллекции отключают соответствующий источник.
+     */
+    public record Scope(Set<Long> journalClientIds, Long userId, Set<Long> peerIds) {
+    }
+
+    public Page<FullTextHit> search(String text, Scope scope, Set<FullTextHit.Source> sources, Pageable pageable) {
+        List<Object> args = new ArrayList<>();
+        args.add(text);
+        args.add(text);
+        String hits = hitsQuery(scope, sources, args);
+
+        String sql = QUERY_CTE + ", hits AS (" + hits + ") " +
+                "SELECT h.source, h.id, h.client_id, h.sender_id, h.receiver_id, h.created_at, h.rank, " +
+                HEADLINE + " AS highlight " +
+                "FROM (SELECT * FROM hits ORDER BY rank DESC, created_at DESC, id DESC LIMIT ? OFFSET ?) h " +
+                "CROSS JOIN q " +
+                "LEFT JOIN journal_entries je ON h.source = 'JOURNAL' AND je.id = h.id " +
+                "LEFT JOIN messages m ON h.source = 'MESSAGE' AND m.id = h.id " +
+                "ORDER BY h.rank DESC, h.created_at DESC, h.id DESC";
+        List<Object> pageArgs = new ArrayList<>(args);
+        pageArgs.add(pageable.getPageSize());
+        pageArgs.add(pageable.getOffset());
+
+        List<FullTextHit> content = jdbcTemplate.query(sql, ROW_MAPPER, pageArgs.toArray());
+        return PageableExecutionUtils.getPage(content, pageable, () -> jdbcTemplate.queryForObject(
+                QUERY_CTE + "SELECT COUNT(*) FROM (" + hits + ") hits", Long.class, args.toArray()));
+    }
+
+    private String hitsQuery(Scope scope, Set<FullTextHit.Source> sources, List<Object> args) {
+        List<String> parts = new ArrayList<>();
+
+        if (sources.contains(FullTextHit.Source.JOURNAL) && !scope.journalClientIds().isEmpty()) {
+            parts.add("SELECT 'JOURNAL' AS source, je.id, je.client_id, CAST(NULL AS BIGINT) AS sender_id, " +
+                    "CAST(NULL AS BIGINT) AS receiver_id, je.created_at, ts_rank_cd(je.search_vector, q.query) AS rank " +
+                    "FROM journal_entries je, q WHERE je.search_vector @@ q.query AND je.client_id IN (" +
+                    placeholders(scope.journalClientIds().size()) + ")");
+            args.addAll(scope.journalClientIds());
+        }
+
+        if (sources.contains(FullTextHit.Source.MESSAGE) && !scope.peerIds().isEmpty()) {
+            String peers = placeholders(scope.peerIds().size());
+            parts.add("SELECT 'MESSAGE' AS source, m.id, CAST(NULL AS BIGINT) AS client_id, m.sender_id, " +
+                    "m.receiver_id, m.sent_at AS created_at, ts_rank_cd(m.search_vector, q.query) AS rank " +
+                    "FROM messages m, q WHERE m.search_vector @@ q.query AND (" +
+                    "(m.sender_id = ? AND m.receiver_id IN (" + peers + ")) OR " +
+                    "(m.receiver_id = ? AND m.sender_id IN (" + peers + ")))");
+            args.add(scope.userId());
+            args.addAll(scope.peerIds());
+            args.add(scope.userId());
+            args.addAll(scope.peerIds());
+        }
+
+        if (parts.isEmpty()) {
+            // Нечего искать — пустая выборка той же формы
+            return "SELECT 'JOURNAL' AS source, CAST(NULL AS BIGINT) AS id, CAST(NULL AS BIGINT) AS client_id, " +
+                    "CAST(NULL AS BIGINT) AS sender_id, CAST(NULL AS BIGINT) AS receiver_id, " +
+                    "CAST(NULL AS TIMESTAMP) AS created_at, CAST(0 AS REAL) AS rank WHERE false";
+        }
+        return String.join(" UNION ALL ", parts);
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long> {
+public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long>, JournalEntryRepositoryCustom {
 
     List<JournalEntry> findByClientIdOrderByCreatedAtDesc(Long clientId);
 
@@ -25,10 +25,24 @@ public interface JournalEntryRepository extends JpaRepository<JournalEntry, Long
 
     long countByClientIdAndCreatedAtBetween(Long clientId, LocalDateTime start, LocalDateTime end);
 
-    List<JournalEntry> findByCreatedAtBefore(LocalDateTime date);
+    // Очередная пачка устаревших записей по индексу (created_at, id)
+    @Query(value = "SELECT id FROM journal_entries WHERE created_at < :cutoff ORDER BY created_at, id LIMIT :batchSize",
+            nativeQuery = true)
+    List<Long> findExpiredIds(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
 
-    @Query("SELECT DISTINCT je FROM JournalEntry je JOIN je.tags tag WHERE je.client.id = :clientId AND tag = :tag")
-    List<JournalEntry> findByClientIdAndTag(@Param("clientId") Long clientId, @Param("tag") String tag);
+    // Каждый вызов — отдельная транзакция, чтобы блокировки держались только на время пачки
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM JournalEntry je WHERE je.id IN :ids")
+    int deleteByIdIn(@Param("ids") List<Long> ids);
+
+    // Топ тегов клиента: разворачиваем jsonb-массив в Postgres, content не читается
+    @Query(value = "SELECT t.tag FROM journal_entries je " +
+            "CROSS JOIN LATERAL jsonb_array_elements_text(je.tags) AS t(tag) " +
+            "WHERE je.client_id = :clientId AND jsonb_typeof(je.tags) = 'array' " +
+            "GROUP BY t.tag ORDER BY COUNT(*) DESC, t.tag ASC LIMIT :limit",
+            nativeQuery = true)
+    List<String> findTopTags(@Param("clientId") Long clientId, @Param("limit") int limit);
 
     @Modifying
     @Transactional
@@ -0,0 +1,22 @@
+package com.psychology.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public interface JournalEntryRepositoryCustom {
+
+    /**
+     * Поиск записей клиента по тегам через jsonb-containment (@>) по GIN-индексу.
+     * matchAll = true — запись содержит все теги, иначе хотя бы один.
+     * Порядок: сначала новые.
+     */
+    Page<JournalEntryView> searchByTags(Long clientId, List<String> tags, boolean matchAll,
+                                        boolean includeContent, Pageable pageable);
+
+    /**
+     * Полные строки (с content) по списку id, в порядке возрастания id. Используется для архивации.
+     */
+    List<JournalEntryView> findViewsByIdIn(List<Long> ids);
+}
@@ -0,0 +1,110 @@
+package com.psychology.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class JournalEntryRepositoryImpl implements JournalEntryRepositoryCustom {
+
+    private static final TypeReference<List<String>> TAG_LIST = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Page<JournalEntryView> searchByTags(Long clientId, List<String> tags, boolean matchAll,
+                                               boolean includeContent, Pageable pageable) {
+        List<Object> args = new ArrayList<>();
+        args.add(clientId);
+        String where = " FROM journal_entries je WHERE je.client_id = ? AND " + tagCondition(tags, matchAll, args);
+
+        String select = "SELECT je.id, je.client_id, je.mood, je.tags::text AS tags, je.created_at, je.updated_at"
+                + (includeContent ? ", je.content" : "")
+                + where
+                + " ORDER BY je.created_at DESC, je.id DESC LIMIT ? OFFSET ?";
+        List<Object> pageArgs = new ArrayList<>(args);
+        pageArgs.add(pageable.getPageSize());
+        pageArgs.add(pageable.getOffset());
+
+        List<JournalEntryView> content = jdbcTemplate.query(select, rowMapper(includeContent), pageArgs.toArray());
+        // COUNT выполняется, только если по первой странице нельзя понять общее число
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> jdbcTemplate.queryForObject("SELECT COUNT(*)" + where, Long.class, args.toArray()));
+    }
+
+    @Override
+    public List<JournalEntryView> findViewsByIdIn(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = "SELECT je.id, je.client_id, je.mood, je.tags::text AS tags, je.created_at, je.updated_at, " +
+                "je.content FROM journal_entries je WHERE je.id IN (" +
+                String.join(", ", Collections.nCopies(ids.size(), "?")) + ") ORDER BY je.id";
+        return jdbcTemplate.query(sql, rowMapper(true), ids.toArray());
+    }
+
+    // AND — один массив в @>, OR — дизъюнкция по тегу (Postgres объединит сканы индекса через BitmapOr)
+    private String tagCondition(List<String> tags, boolean matchAll, List<Object> args) {
+        if (matchAll) {
+            args.add(toJson(tags));
+            return "je.tags @> CAST(? AS jsonb)";
+        }
+        StringBuilder condition = new StringBuilder("(");
+        for (int i = 0; i < tags.size(); i++) {
+            if (i > 0) {
+                condition.append(" OR ");
+            }
+            condition.append("je.tags @> CAST(? AS jsonb)");
+            args.add(toJson(List.of(tags.get(i))));
+        }
+        return condition.append(")").toString();
+    }
+
+    private RowMapper<JournalEntryView> rowMapper(boolean includeContent) {
+        return (rs, rowNum) -> new JournalEntryView(
+                rs.getLong("id"),
+                rs.getLong("client_id"),
+                rs.getString("mood"),
+                parseTags(rs.getString("tags")),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                toLocalDateTime(rs.getTimestamp("updated_at")),
+                includeContent ? rs.getString("content") : null);
+    }
+
+    private String toJson(List<String> tags) {
+        try {
+            return objectMapper.writeValueAsString(tags);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize tags", e);
+        }
+    }
+
+    private List<String> parseTags(String json) {
+        if (json == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return objectMapper.readValue(json, TAG_LIST);
+        } catch (JsonProcessingException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.psychology.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Легкая проекция записи дневника для списков и поиска.
+ * content заполняется только по явному запросу.
+ */
+public record JournalEntryView(Long id,
+                               Long clientId,
+                               String mood,
+                               List<String> tags,
+                               LocalDateTime createdAt,
+                               LocalDateTime updatedAt,
+                               String content) {
+}
@@ -0,0 +1,79 @@
+package com.psychology.repository;
+
+import com.psychology.model.entity.JournalMoodDaily;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface JournalMoodDailyRepository extends JpaRepository<JournalMoodDaily, Long> {
+
+    // Атомарное изменение счетчика дня: параллельные записи одного клиента не теряют инкременты
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO journal_mood_daily (client_id, entry_date, mood, entry_count) " +
+            "VALUES (:clientId, :entryDate, :mood, :delta) " +
+            "ON CONFLICT (client_id, entry_date, mood) DO UPDATE SET " +
+            "entry_count = journal_mood_daily.entry_count + EXCLUDED.entry_count",
+            nativeQuery = true)
+    void adjust(@Param("clientId") Long clientId,
+                @Param("entryDate") LocalDate entryDate,
+                @Param("mood") String mood,
+                @Param("delta") int delta);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM JournalMoodDaily d WHERE d.client.id = :clientId AND d.entryDate = :entryDate " +
+            "AND d.mood = :mood AND d.entryCount <= 0")
+    int deleteIfEmpty(@Param("clientId") Long clientId,
+                      @Param("entryDate") LocalDate entryDate,
+                      @Param("mood") String mood);
+
+    @Query("SELECT COALESCE(SUM(d.entryCount), 0) FROM JournalMoodDaily d WHERE d.client.id = :clientId")
+    long sumEntries(@Param("clientId") Long clientId);
+
+    @Query("SELECT COALESCE(SUM(d.entryCount), 0) FROM JournalMoodDaily d " +
+            "WHERE d.client.id = :clientId AND d.entryDate >= :since")
+    long sumEntriesSince(@Param("clientId") Long clientId, @Param("since") LocalDate since);
+
+    @Query("SELECT d.mood FROM JournalMoodDaily d WHERE d.client.id = :clientId AND TRIM(d.mood) <> '' " +
+            "GROUP BY d.mood ORDER BY SUM(d.entryCount) DESC, d.mood ASC")
+    List<String> findTopMoods(@Param("clientId") Long clientId, Pageable pageable);
+
+    @Query("SELECT d FROM JournalMoodDaily d WHERE d.client.id = :clientId " +
+            "AND d.entryDate BETWEEN :from AND :to AND d.entryCount > 0 ORDER BY d.entryDate ASC, d.mood ASC")
+    List<JournalMoodDaily> findSeries(@Param("clientId") Long clientId,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    @Modifying
+    @Transactional
+    void deleteByClientId(Long clientId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM JournalMoodDaily d WHERE d.entryDate <= :entryDate")
+    int deleteUpTo(@Param("entryDate") LocalDate entryDate);
+
+    /**
+     * Пересчет сводки из journal_entries: первичное заполнение (upTo = null)
+     * или восстановление дней до upTo включительно после массового удаления записей.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO journal_mood_daily (client_id, entry_date, mood, entry_count) " +
+            "SELECT client_id, CAST(created_at AS date), COALESCE(mood, ''), COUNT(*) FROM journal_entries " +
+            "WHERE created_at IS NOT NULL " +
+            "AND (CAST(:upTo AS date) IS NULL OR CAST(created_at AS date) <= CAST(:upTo AS date)) " +
+            "GROUP BY client_id, CAST(created_at AS date), COALESCE(mood, '') " +
+            "ON CONFLICT (client_id, entry_date, mood) DO NOTHING",
+            nativeQuery = true)
+    int rebuildFromEntries(@Param("upTo") LocalDate upTo);
+}
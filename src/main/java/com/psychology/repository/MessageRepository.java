@@ -2,6 +2,7 @@ package com.psychology.repository;
 
 import com.psychology.model.entity.Message;
 import com.psychology.model.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -10,6 +11,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -22,6 +24,27 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findConversation(@Param("user1Id") Long user1Id,
                                    @Param("user2Id") Long user2Id);
 
+    // Первая (самая свежая) страница переписки, новые сообщения первыми
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.receiver WHERE " +
+            "((m.sender.id = :user1Id AND m.receiver.id = :user2Id) OR " +
+            "(m.sender.id = :user2Id AND m.receiver.id = :user1Id)) " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findConversationPage(@Param("user1Id") Long user1Id,
+                                       @Param("user2Id") Long user2Id,
+                                       Pageable pageable);
+
+    // Следующая страница: keyset по (sent_at, id) строго раньше курсора
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.receiver WHERE " +
+            "((m.sender.id = :user1Id AND m.receiver.id = :user2Id) OR " +
+            "(m.sender.id = :user2Id AND m.receiver.id = :user1Id)) AND " +
+            "(m.sentAt < :beforeSentAt OR (m.sentAt = :beforeSentAt AND m.id < :beforeId)) " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    List<Message> findConversationPageBefore(@Param("user1Id") Long user1Id,
+                                             @Param("user2Id") Long user2Id,
+                                             @Param("beforeSentAt") LocalDateTime beforeSentAt,
+                                             @Param("beforeId") Long beforeId,
+                                             Pageable pageable);
+
     @Query("SELECT m FROM Message m WHERE " +
             "(m.sender.id = :userId OR m.receiver.id = :userId) AND " +
             "m.sentAt > :since " +
@@ -40,6 +63,19 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
 
     long countByReceiverIdAndReadFalse(Long receiverId);
 
+    @Query("SELECT m.receiver.id AS userId, COUNT(m) AS unreadCount FROM Message m " +
+            "WHERE m.read = false AND m.receiver.id IN :userIds GROUP BY m.receiver.id")
+    List<UnreadCountView> countUnreadByReceiverIds(@Param("userIds") Collection<Long> userIds);
+
+    // Прочитано все входящее от собеседника вплоть до upToId — одним UPDATE
+    @Modifying
+    @Transactional
+    @Query("UPDATE Message m SET m.read = true WHERE m.receiver.id = :receiverId AND m.sender.id = :senderId " +
+            "AND m.id <= :upToId AND m.read = false")
+    int markReadUpTo(@Param("receiverId") Long receiverId,
+                     @Param("senderId") Long senderId,
+                     @Param("upToId") Long upToId);
+
     @Modifying
     @Transactional
     @Query("DELETE FROM Message m WHERE m.sender.id = :userId OR m.receiver.id = :userId")
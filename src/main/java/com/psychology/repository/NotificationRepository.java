@@ -8,12 +8,14 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, Long> {
+public interface NotificationRepository extends JpaRepository<Notification, Long>, NotificationRepositoryCustom {
 
     List<Notification> findByUserOrderByCreatedAtDesc(User user);
 
@@ -23,6 +25,10 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
 
     long countByUserAndRead(User user, boolean read);
 
+    @Query("SELECT n.user.id AS userId, COUNT(n) AS unreadCount FROM Notification n " +
+            "WHERE n.read = false AND n.user.id IN :userIds GROUP BY n.user.id")
+    List<UnreadCountView> countUnreadByUserIds(@Param("userIds") Collection<Long> userIds);
+
     @Query("SELECT n FROM Notification n WHERE n.user = :user AND n.createdAt >= :since ORDER BY n.createdAt DESC")
     List<Notification> findByUserSince(@Param("user") User user, @Param("since") LocalDateTime since);
 
@@ -30,9 +36,15 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     @Query("UPDATE Notification n SET n.read = true WHERE n.user = :user AND n.read = false")
     void markAllAsReadByUser(@Param("user") User user);
 
+    // Удаляет не более batchSize устаревших уведомлений по индексу (created_at, id);
+    // каждый вызов — отдельная транзакция
     @Modifying
-    @Query("DELETE FROM Notification n WHERE n.user = :user AND n.createdAt < :expirationDate")
-    void deleteOldNotifications(@Param("user") User user, @Param("expirationDate") LocalDateTime expirationDate);
+    @Transactional
+    @Query(value = "DELETE FROM notifications WHERE id IN (" +
+            "SELECT id FROM notifications WHERE created_at < :expirationDate ORDER BY created_at, id LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("expirationDate") LocalDateTime expirationDate,
+                           @Param("batchSize") int batchSize);
 
     @Query("SELECT n FROM Notification n WHERE n.user = :user AND n.type = :type AND n.relatedEntityId = :relatedEntityId")
     List<Notification> findByUserAndTypeAndRelatedEntityId(@Param("user") User user,
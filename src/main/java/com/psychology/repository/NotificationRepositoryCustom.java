@@ -0,0 +1,15 @@
+package com.psychology.repository;
+
+import com.psychology.model.entity.Notification;
+
+import java.util.List;
+
+public interface NotificationRepositoryCustom {
+
+    /**
+     * Пакетная вставка уведомлений с ключом идемпотентности.
+     * Строки, чей dedup_key уже есть в таблице, пропускаются;
+     * возвращаются только реально вставленные уведомления (с заполненным id).
+     */
+    List<Notification> insertIgnoringDuplicates(List<Notification> notifications);
+}
@@ -0,0 +1,76 @@
+package com.psychology.repository;
+
+import com.psychology.model.entity.Notification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class NotificationRepositoryImpl implements NotificationRepositoryCustom {
+
+    private static final String INSERT_PREFIX = "INSERT INTO notifications " +
+            "(user_id, type, title, message, is_read, related_entity_id, related_entity_type, created_at, dedup_key) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, false, ?, ?, ?, ?)";
+    private static final String INSERT_SUFFIX = " ON CONFLICT (dedup_key) DO NOTHING RETURNING id, dedup_key";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.reminders.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    public List<Notification> insertIgnoringDuplicates(List<Notification> notifications) {
+        List<Notification> inserted = new ArrayList<>();
+        int chunk = Math.max(batchSize, 1);
+        for (int from = 0; from < notifications.size(); from += chunk) {
+            inserted.addAll(insertChunk(notifications.subList(from, Math.min(from + chunk, notifications.size()))));
+        }
+        return inserted;
+    }
+
+    // Один многострочный INSERT на пачку вместо save() на каждую строку
+    private List<Notification> insertChunk(List<Notification> chunk) {
+        Map<String, Notification> byKey = new HashMap<>();
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        List<Object> args = new ArrayList<>(chunk.size() * 8);
+
+        for (Notification n : chunk) {
+            if (byKey.putIfAbsent(n.getDedupKey(), n) != null) {
+                continue; // дубликат внутри самой пачки
+            }
+            if (args.size() > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW);
+            if (n.getCreatedAt() == null) {
+                n.setCreatedAt(LocalDateTime.now());
+            }
+            args.add(n.getUser().getId());
+            args.add(n.getType().name());
+            args.add(n.getTitle());
+            args.add(n.getMessage());
+            args.add(n.getRelatedEntityId());
+            args.add(n.getRelatedEntityType());
+            args.add(Timestamp.valueOf(n.getCreatedAt()));
+            args.add(n.getDedupKey());
+        }
+        sql.append(INSERT_SUFFIX);
+
+        List<Notification> inserted = new ArrayList<>();
+        jdbcTemplate.query(sql.toString(), rs -> {
+            Notification n = byKey.get(rs.getString("dedup_key"));
+            if (n != null) {
+                n.setId(rs.getLong("id"));
+                inserted.add(n);
+            }
+        }, args.toArray());
+        return inserted;
+    }
+}
@@ -0,0 +1,38 @@
+package com.psychology.repository;
+
+import com.psychology.model.entity.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long>, OutboxMessageRepositoryCustom {
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxMessage o WHERE o.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxMessage o SET o.attempts = o.attempts + 1, o.nextAttemptAt = :nextAttemptAt, " +
+            "o.lastError = :error, o.status = :status WHERE o.id = :id")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                          @Param("error") String error,
+                          @Param("status") OutboxMessage.Status status);
+
+    // Неотправленный хвост группы возвращается в очередь без списания попытки
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxMessage o SET o.nextAttemptAt = :nextAttemptAt WHERE o.id IN :ids")
+    int reschedule(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    long countByStatus(OutboxMessage.Status status);
+}
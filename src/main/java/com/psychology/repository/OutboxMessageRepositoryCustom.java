@@ -0,0 +1,19 @@
+package com.psychology.repository;
+
+import com.psychology.model.entity.OutboxMessage;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface OutboxMessageRepositoryCustom {
+
+    /**
+     * Забирает до limit готовых к отправке сообщений (FOR UPDATE SKIP LOCKED) и сдвигает их
+     * next_attempt_at на lease вперед — пока узел доставляет пачку, другие узлы ее не видят.
+     * Если узел упадет, строки снова станут доступны по истечении lease. Порядок — по id.
+     */
+    List<OutboxMessage> claimDue(int limit, Duration lease);
+
+    // Пакетная вставка (JDBC batch) — IDENTITY не дает Hibernate батчить save()
+    void insertAll(List<OutboxMessage> messages);
+}
@@ -0,0 +1,55 @@
+package com.psychology.repository;
+
+import com.psychology.model.entity.OutboxMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OutboxMessageRepositoryImpl implements OutboxMessageRepositoryCustom {
+
+    private static final String CLAIM_SQL = "UPDATE outbox_messages SET next_attempt_at = ? " +
+            "WHERE id IN (SELECT id FROM outbox_messages WHERE status = 'PENDING' AND next_attempt_at <= ? " +
+            "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, destination, payload, attempts, next_attempt_at, created_at";
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_messages " +
+            "(destination, payload, status, attempts, next_attempt_at, created_at) VALUES (?, ?, 'PENDING', 0, ?, ?)";
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<OutboxMessage> claimDue(int limit, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> claimed = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> {
+            OutboxMessage message = new OutboxMessage();
+            message.setId(rs.getLong("id"));
+            message.setDestination(rs.getString("destination"));
+            message.setPayload(rs.getString("payload"));
+            message.setAttempts(rs.getInt("attempts"));
+            message.setNextAttemptAt(rs.getTimestamp("next_attempt_at").toLocalDateTime());
+            message.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+            return message;
+        }, Timestamp.valueOf(now.plus(lease)), Timestamp.valueOf(now), limit);
+        // RETURNING не гарантирует порядок
+        claimed.sort(Comparator.comparing(OutboxMessage::getId));
+        return claimed;
+    }
+
+    @Override
+    public void insertAll(List<OutboxMessage> messages) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, messages, INSERT_BATCH_SIZE, (ps, message) -> {
+            ps.setString(1, message.getDestination());
+            ps.setString(2, message.getPayload());
+            ps.setTimestamp(3, Timestamp.valueOf(message.getNextAttemptAt()));
+            ps.setTimestamp(4, Timestamp.valueOf(message.getCreatedAt()));
+        });
+    }
+}
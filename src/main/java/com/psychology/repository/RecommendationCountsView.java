@@ -0,0 +1,12 @@
+package com.psychology.repository;
+
+/**
+ * Сводные счетчики рекомендаций психолога (один агрегирующий запрос).
+ */
+public interface RecommendationCountsView {
+    Long getTotal();
+
+    Long getCompleted();
+
+    Long getOverdue();
+}
@@ -1,7 +1,10 @@
 package com.psychology.repository;
 
 import com.psychology.model.entity.Recommendation;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -12,7 +15,8 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface RecommendationRepository extends JpaRepository<Recommendation, Long> {
+public interface RecommendationRepository extends JpaRepository<Recommendation, Long>,
+        JpaSpecificationExecutor<Recommendation> {
 
     List<Recommendation> findByClientId(Long clientId);
 
@@ -20,8 +24,21 @@ public interface RecommendationRepository extends JpaRepository<Recommendation,
 
     List<Recommendation> findByClientIdAndCompleted(Long clientId, boolean completed);
 
-    @Query("SELECT r FROM Recommendation r WHERE r.client.psychologist.id = :psychologistId AND r.completed = false AND r.deadline < :now")
-    List<Recommendation> findOverdueByPsychologistId(@Param("psychologistId") Long psychologistId, @Param("now") LocalDateTime now);
+    // Идет по индексу (psychologist_id, completed, deadline) без join на clients
+    @Query(value = "SELECT r FROM Recommendation r WHERE r.psychologist.id = :psychologistId " +
+            "AND r.completed = false AND r.deadline < :now ORDER BY r.deadline ASC, r.id ASC",
+            countQuery = "SELECT COUNT(r) FROM Recommendation r WHERE r.psychologist.id = :psychologistId " +
+                    "AND r.completed = false AND r.deadline < :now")
+    Page<Recommendation> findOverdueByPsychologistId(@Param("psychologistId") Long psychologistId,
+                                                     @Param("now") LocalDateTime now,
+                                                     Pageable pageable);
+
+    @Query("SELECT COUNT(r) AS total, " +
+            "COALESCE(SUM(CASE WHEN r.completed = true THEN 1 ELSE 0 END), 0) AS completed, " +
+            "COALESCE(SUM(CASE WHEN r.completed = false AND r.deadline < :now THEN 1 ELSE 0 END), 0) AS overdue " +
+            "FROM Recommendation r WHERE r.psychologist.id = :psychologistId")
+    RecommendationCountsView countStatsByPsychologistId(@Param("psychologistId") Long psychologistId,
+                                                        @Param("now") LocalDateTime now);
 
     @Query("SELECT r FROM Recommendation r WHERE r.completed = false AND r.deadline < :deadline")
     List<Recommendation> findOverdueRecommendations(@Param("deadline") LocalDateTime deadline);
@@ -0,0 +1,71 @@
+package com.psychology.repository;
+
+import com.psychology.model.entity.Recommendation;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фильтры и порядок выдачи рекомендаций клиента, выполняемые в SQL.
+ * Порядок: сначала просроченные, затем по приоритету (выше — раньше), затем по дедлайну (без дедлайна — в конце).
+ */
+public final class RecommendationSpecifications {
+
+    private RecommendationSpecifications() {
+    }
+
+    public static Specification<Recommendation> clientListing(Long clientId, Boolean completed, Boolean overdue,
+                                                              LocalDateTime from, LocalDateTime to,
+                                                              LocalDateTime now) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("client").get("id"), clientId));
+
+            if (completed != null) {
+                predicates.add(cb.equal(root.get("completed"), completed));
+            }
+            if (overdue != null) {
+                Predicate isOverdue = isOverdue(root, cb, now);
+                predicates.add(overdue ? isOverdue : cb.not(isOverdue));
+            }
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), from));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), to));
+            }
+
+            // Для count-запроса пагинации сортировка не нужна
+            Class<?> resultType = query.getResultType();
+            if (resultType != Long.class && resultType != long.class) {
+                Expression<Integer> overdueRank = cb.<Integer>selectCase()
+                        .when(isOverdue(root, cb, now), 0)
+                        .otherwise(1);
+                Expression<Integer> noDeadlineRank = cb.<Integer>selectCase()
+                        .when(cb.isNull(root.get("deadline")), 1)
+                        .otherwise(0);
+                query.orderBy(
+                        cb.asc(overdueRank),
+                        cb.desc(root.get("priority")),
+                        cb.asc(noDeadlineRank),
+                        cb.asc(root.get("deadline")),
+                        cb.asc(root.get("id")));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static Predicate isOverdue(Root<Recommendation> root, CriteriaBuilder cb, LocalDateTime now) {
+        return cb.and(
+                cb.isFalse(root.get("completed")),
+                cb.isNotNull(root.get("deadline")),
+                cb.lessThan(root.get("deadline"), now));
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -26,6 +27,18 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
     List<Session> findByClientIdAndScheduledAtBetween(
             Long clientId, LocalDateTime start, LocalDateTime end);
 
+    List<Session> findTop5ByPsychologistIdAndScheduledAtAfterAndStatusNotInOrderByScheduledAtAsc(
+            Long psychologistId, LocalDateTime after, Collection<Session.SessionStatus> excludedStatuses);
+
+    List<Session> findTop5ByClientIdAndScheduledAtAfterAndStatusNotInOrderByScheduledAtAsc(
+            Long clientId, LocalDateTime after, Collection<Session.SessionStatus> excludedStatuses);
+
+    @Query("SELECT DISTINCT s.client FROM Session s WHERE s.client.psychologist.id = :psychologistId " +
+            "AND s.scheduledAt BETWEEN :start AND :end")
+    List<Client> findClientsWithSessionsBetween(@Param("psychologistId") Long psychologistId,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end);
+
     List<Session> findByPsychologistIdAndStatus(Long psychologistId, Session.SessionStatus status);
 
     List<Session> findByClientIdAndStatus(Long clientId, Session.SessionStatus status);
@@ -38,6 +51,17 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
 
     List<Session> findByScheduledAtBetween(LocalDateTime start, LocalDateTime end);
 
+    // Сеансы окна напоминаний для одного шарда (client_id mod shards)
+    @Query("SELECT s FROM Session s JOIN FETCH s.client JOIN FETCH s.psychologist " +
+            "WHERE s.scheduledAt BETWEEN :start AND :end AND MOD(s.client.id, :shards) = :shard")
+    List<Session> findByScheduledAtBetweenInShard(@Param("start") LocalDateTime start,
+                                                  @Param("end") LocalDateTime end,
+                                                  @Param("shards") int shards,
+                                                  @Param("shard") int shard);
+
+    @Query("SELECT s FROM Session s JOIN FETCH s.client JOIN FETCH s.psychologist WHERE s.id IN :ids")
+    List<Session> findWithParticipantsByIdIn(@Param("ids") Collection<Long> ids);
+
     @Modifying
     @Transactional
     void deleteByClientId(Long clientId);
@@ -0,0 +1,10 @@
+package com.psychology.repository;
+
+/**
+ * Число непрочитанных по пользователю (групповой подсчет для сверки счетчиков).
+ */
+public interface UnreadCountView {
+    Long getUserId();
+
+    Long getUnreadCount();
+}
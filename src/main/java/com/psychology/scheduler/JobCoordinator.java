@@ -0,0 +1,246 @@
+package com.psychology.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Координация фоновых задач между инстансами через lease-блокировки в Redis.
+ * Задача выполняется одним узлом на кластер; шардированная задача делится
+ * на части, и каждый узел забирает не больше своей доли (шарды / живые узлы).
+ * Живые узлы отмечаются heartbeat-ом в sorted set scheduler:nodes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JobCoordinator {
+
+    private static final String LOCK_PREFIX = "scheduler:lock:";
+    private static final String NODES_KEY = "scheduler:nodes";
+    private static final long HEARTBEAT_MS = 30_000;
+    // Узел без heartbeat дольше трех интервалов считается выбывшим
+    private static final long NODE_TTL_MS = 3 * HEARTBEAT_MS;
+
+    // Снимаем или укорачиваем lease, только если он все еще наш
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+            "  if tonumber(ARGV[2]) > 0 then return redis.call('pexpire', KEYS[1], ARGV[2]) end " +
+            "  return redis.call('del', KEYS[1]) " +
+            "end " +
+            "return 0", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${app.scheduler.lock.enabled:true}")
+    private boolean lockEnabled;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, JobMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Выполняет задачу, если этот узел получил lease.
+     * lockAtMost — страховка на случай падения узла, lockAtLeast — минимальное время
+     * удержания, чтобы соседний узел с небольшим сдвигом часов не запустил задачу повторно.
+     */
+    public void run(String job, Duration lockAtMost, Duration lockAtLeast, LongSupplier task) {
+        JobMetrics jobMetrics = metrics(job);
+        String key = LOCK_PREFIX + job;
+        if (!tryAcquire(key, lockAtMost)) {
+            jobMetrics.skipped();
+            log.debug("Job {} is running on another node, skipping", job);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            long rows = task.getAsLong();
+            jobMetrics.finished(startedAt, System.currentTimeMillis() - start, rows, 1, "SUCCESS");
+        } catch (RuntimeException e) {
+            jobMetrics.finished(startedAt, System.currentTimeMillis() - start, 0, 1, "FAILED");
+            log.error("Job {} failed: {}", job, e.getMessage(), e);
+        } finally {
+            release(key, lockAtLeast, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Шардированный вариант: работа делится на shards частей (например, по user_id mod shards).
+     * Узел проходит шарды начиная со своего смещения и берет lease, пока не наберет свою долю
+     * ceil(shards / живые узлы); остальные шарды достаются соседям, срабатывающим в ту же минуту.
+     */
+    public void runSharded(String job, int shards, Duration lockAtMost, Duration lockAtLeast,
+                           IntToLongFunction shardTask) {
+        if (shards <= 1) {
+            run(job, lockAtMost, lockAtLeast, () -> shardTask.applyAsLong(0));
+            return;
+        }
+
+        JobMetrics jobMetrics = metrics(job);
+        long start = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+        long rows = 0;
+        int processed = 0;
+        boolean failed = false;
+
+        int share = share(shards, activeNodes());
+        int claimed = 0;
+        int offset = Math.floorMod(nodeId.hashCode(), shards);
+        for (int i = 0; i < shards && claimed < share; i++) {
+            int shard = (offset + i) % shards;
+            String key = LOCK_PREFIX + job + ":" + shard;
+            if (!tryAcquire(key, lockAtMost)) {
+                continue;
+            }
+            claimed++;
+            long shardStart = System.currentTimeMillis();
+            try {
+                rows += shardTask.applyAsLong(shard);
+                processed++;
+            } catch (RuntimeException e) {
+                failed = true;
+                log.error("Job {} shard {}/{} failed: {}", job, shard, shards, e.getMessage(), e);
+            } finally {
+                release(key, lockAtLeast, System.currentTimeMillis() - shardStart);
+            }
+        }
+
+        if (processed == 0 && !failed) {
+            jobMetrics.skipped();
+            return;
+        }
+        jobMetrics.finished(startedAt, System.currentTimeMillis() - start, rows, processed,
+                failed ? "FAILED" : "SUCCESS");
+    }
+
+    // Отметка "узел жив" для расчета доли шардов
+    @Scheduled(fixedRate = HEARTBEAT_MS)
+    public void heartbeat() {
+        if (!lockEnabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            stringRedisTemplate.opsForZSet().add(NODES_KEY, nodeId, now);
+            stringRedisTemplate.opsForZSet().removeRangeByScore(NODES_KEY, 0, now - NODE_TTL_MS);
+        } catch (Exception e) {
+            log.warn("Failed to publish scheduler heartbeat: {}", e.getMessage());
+        }
+    }
+
+    static int share(int shards, long activeNodes) {
+        long nodes = Math.max(1, activeNodes);
+        return (int) Math.min(shards, (shards + nodes - 1) / nodes);
+    }
+
+    private long activeNodes() {
+        if (!lockEnabled) {
+            return 1;
+        }
+        try {
+            Long count = stringRedisTemplate.opsForZSet()
+                    .count(NODES_KEY, System.currentTimeMillis() - NODE_TTL_MS, Double.POSITIVE_INFINITY);
+            return count == null ? 1 : Math.max(1, count);
+        } catch (Exception e) {
+            // Без счетчика узлов берем все шарды: lease все равно не даст выполнить шард дважды
+            log.warn("Failed to count scheduler nodes: {}", e.getMessage());
+            return 1;
+        }
+    }
+
+    public Map<String, JobStats> getStats() {
+        Map<String, JobStats> result = new TreeMap<>();
+        metrics.forEach((job, m) -> result.put(job, m.snapshot(job)));
+        return result;
+    }
+
+    private boolean tryAcquire(String key, Duration lease) {
+        if (!lockEnabled) {
+            return true;
+        }
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(key, nodeId, lease.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (Exception e) {
+            // Без Redis не можем гарантировать единственный запуск — пропускаем
+            log.warn("Failed to acquire scheduler lock {}: {}", key, e.getMessage());
+            return false;
+        }
+    }
+
+    private void release(String key, Duration lockAtLeast, long elapsedMs) {
+        if (!lockEnabled) {
+            return;
+        }
+        long remaining = Math.max(0, lockAtLeast.toMillis() - elapsedMs);
+        try {
+            List<String> keys = Collections.singletonList(key);
+            stringRedisTemplate.execute(RELEASE_SCRIPT, keys, nodeId, Long.toString(remaining));
+        } catch (Exception e) {
+            log.warn("Failed to release scheduler lock {}: {}", key, e.getMessage());
+        }
+    }
+
+    private JobMetrics metrics(String job) {
+        return metrics.computeIfAbsent(job, j -> new JobMetrics());
+    }
+
+    private static class JobMetrics {
+        private LocalDateTime lastStartedAt;
+        private long lastDurationMs;
+        private long lastRowsAffected;
+        private int lastShardsProcessed;
+        private String lastStatus;
+        private long runs;
+        private long skipped;
+        private long failures;
+
+        synchronized void finished(LocalDateTime startedAt, long durationMs, long rows, int shards, String status) {
+            lastStartedAt = startedAt;
+            lastDurationMs = durationMs;
+            lastRowsAffected = rows;
+            lastShardsProcessed = shards;
+            lastStatus = status;
+            runs++;
+            if ("FAILED".equals(status)) {
+                failures++;
+            }
+        }
+
+        synchronized void skipped() {
+            skipped++;
+        }
+
+        synchronized JobStats snapshot(String job) {
+            return new JobStats(job, lastStartedAt, lastDurationMs, lastRowsAffected, lastShardsProcessed,
+                    lastStatus, runs, skipped, failures);
+        }
+    }
+
+    public record JobStats(String job,
+                           LocalDateTime lastStartedAt,
+                           long lastDurationMs,
+                           long lastRowsAffected,
+                           int lastShardsProcessed,
+                           String lastStatus,
+                           long runs,
+                           long skipped,
+                           long failures) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.psychology.scheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Хешированное колесо таймеров: задачи раскладываются по слотам по времени срабатывания,
+ * за тик просматривается только текущий слот. Повторное добавление с тем же ключом
+ * заменяет прежнюю задачу (перенос сеанса), cancel — снимает ее.
+ */
+public class TimingWheel<T> {
+
+    private final long tickMs;
+    private final List<Map<String, Entry<T>>> slots;
+    private final Map<String, Entry<T>> byKey = new HashMap<>();
+
+    // Абсолютный номер последнего обработанного тика
+    private long currentTick;
+
+    public TimingWheel(long tickMs, int wheelSize, long nowMs) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        this.tickMs = tickMs;
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new LinkedHashMap<>());
+        }
+        this.currentTick = nowMs / tickMs;
+    }
+
+    public synchronized void schedule(String key, long dueAtMs, T task) {
+        cancel(key);
+        // Уже просроченные попадают в ближайший тик
+        long tick = Math.max(dueAtMs / tickMs, currentTick + 1);
+        Entry<T> entry = new Entry<>(key, tick, task);
+        slots.get(slotOf(tick)).put(key, entry);
+        byKey.put(key, entry);
+    }
+
+    public synchronized boolean cancel(String key) {
+        Entry<T> entry = byKey.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        slots.get(slotOf(entry.tick())).remove(key);
+        return true;
+    }
+
+    /**
+     * Проворачивает колесо до nowMs и возвращает задачи, чье время наступило.
+     */
+    public synchronized List<T> advance(long nowMs) {
+        long targetTick = nowMs / tickMs;
+        List<T> due = new ArrayList<>();
+        // После долгой паузы достаточно одного полного оборота
+        long from = Math.max(currentTick + 1, targetTick - slots.size() + 1);
+        for (long tick = from; tick <= targetTick; tick++) {
+            Iterator<Entry<T>> it = slots.get(slotOf(tick)).values().iterator();
+            while (it.hasNext()) {
+                Entry<T> entry = it.next();
+                if (entry.tick() <= targetTick) {
+                    it.remove();
+                    byKey.remove(entry.key());
+                    due.add(entry.task());
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, targetTick);
+        return due;
+    }
+
+    public synchronized int size() {
+        return byKey.size();
+    }
+
+    private int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.size());
+    }
+
+    private record Entry<T>(String key, long tick, T task) {
+    }
+}
@@ -1,17 +1,14 @@
 package com.psychology.security;
 
-import com.psychology.model.entity.User;
-import com.psychology.model.entity.Psychologist;
-import com.psychology.repository.UserRepository;
+import com.psychology.cache.PrincipalCache;
+import com.psychology.model.entity.UserRole;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -19,16 +16,12 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.io.IOException;
-import java.util.Collections;
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    private final JwtTokenProvider jwtTokenProvider;
-    private final UserRepository userRepository;
-    private final StringRedisTemplate stringRedisTemplate;
-
-    private static final String BLACKLIST_PREFIX = "blacklist:";
+    private final TokenVerifier tokenVerifier;
+    private final PrincipalCache principalCache;
 
     @Value("${admin.login:admin}")
     private String adminLogin;
@@ -63,43 +56,42 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             final String jwt = authHeader.substring(7);
 
-            if (!jwtTokenProvider.validateToken(jwt)) {
+            // Один разбор токена + проверка черного списка (с кешем успешных проверок)
+            TokenVerifier.Result verification = tokenVerifier.verify(jwt);
+
+            if (verification.status() == TokenVerifier.Status.INVALID) {
                 log.warn("Invalid or expired token");
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.getWriter().write("Token is invalid or expired");
                 return;
             }
 
-            if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(BLACKLIST_PREFIX + jwt))) {
+            if (verification.status() == TokenVerifier.Status.REVOKED) {
                 log.warn("Blacklisted token used for protected endpoint: {}", requestUri);
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.getWriter().write("Token is blacklisted");
                 return;
             }
 
-            final String phone = jwtTokenProvider.extractUsername(jwt);
+            final String phone = verification.token().subject();
             log.debug("Extracted phone from token: {}", phone);
 
             if (phone != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                // Загружаем пользователя из базы
-                User user = userRepository.findByPhone(phone)
-                        .orElse(null);
+                // Снимок пользователя из кеша principal (в БД — только при промахе)
+                PrincipalCache.PrincipalSnapshot snapshot = principalCache.get(phone).orElse(null);
 
-                if (user != null) {
-                    if (user instanceof Psychologist psychologist && !psychologist.isVerified()) {
+                if (snapshot != null) {
+                    if (snapshot.role() == UserRole.ROLE_PSYCHOLOGIST && !snapshot.verified()) {
                         if (!isVerificationAllowedEndpoint(requestUri)) {
                             response.setStatus(HttpServletResponse.SC_FORBIDDEN);
                             response.getWriter().write("Psychologist account is pending verification");
                             return;
                         }
                     }
-                    log.debug("Loaded user: ID={}, Role={}", user.getId(), user.getRole());
+                    log.debug("Loaded user: ID={}, Role={}", snapshot.id(), snapshot.role());
 
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            user,
-                            null,
-                            Collections.singletonList(new SimpleGrantedAuthority(user.getRole().name()))
-                    );
+                    UsernamePasswordAuthenticationToken authToken =
+                            new PrincipalAuthenticationToken(principalCache.toPrincipal(snapshot), snapshot);
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                     log.debug("Authentication set successfully for user: {}", phone);
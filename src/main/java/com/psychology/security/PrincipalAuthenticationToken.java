@@ -0,0 +1,30 @@
+package com.psychology.security;
+
+import com.psychology.cache.PrincipalCache;
+import com.psychology.model.entity.User;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * Аутентификация пользователя приложения: кроме ленивой ссылки на сущность хранит снимок
+ * из PrincipalCache, чтобы id, роль и психолога клиента можно было прочитать без запроса в БД.
+ */
+public class PrincipalAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private final PrincipalCache.PrincipalSnapshot snapshot;
+
+    public PrincipalAuthenticationToken(User principal, PrincipalCache.PrincipalSnapshot snapshot) {
+        super(principal, null, snapshot.authorities());
+        this.snapshot = snapshot;
+    }
+
+    public PrincipalCache.PrincipalSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // Имя берется из снимка: toString() ленивой ссылки загрузил бы сущность из БД
+    // (DefaultSimpUserRegistry читает имя на каждый STOMP CONNECT, rate limiter — на каждый запрос)
+    @Override
+    public String getName() {
+        return snapshot.phone();
+    }
+}
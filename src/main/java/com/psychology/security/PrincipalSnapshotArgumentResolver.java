@@ -0,0 +1,31 @@
+package com.psychology.security;
+
+import com.psychology.cache.PrincipalCache;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Параметр контроллера типа PrincipalSnapshot — снимок текущего пользователя из SecurityContext.
+ * Для админа и анонимного запроса — null.
+ */
+@Component
+public class PrincipalSnapshotArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return PrincipalCache.PrincipalSnapshot.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication instanceof PrincipalAuthenticationToken token ? token.getSnapshot() : null;
+    }
+}
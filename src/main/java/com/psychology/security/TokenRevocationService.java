@@ -0,0 +1,234 @@
+package com.psychology.security;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отзыв токенов по идентификатору (claim jti) вместо полного JWT в ключе.
+ * Источник истины — ключи revoked:<id> в Redis с TTL до истечения токена.
+ * Локальный Bloom-фильтр отвечает "точно не отозван" без сетевого вызова;
+ * только при "возможно" идем в Redis. Новые отзывы рассылаются узлам через pub/sub,
+ * фильтр периодически пересобирается из Redis — это чистит истекшие записи
+ * и закрывает пропущенные сообщения.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    private static final String REVOKED_PREFIX = "revoked:";
+    private static final String LEGACY_BLACKLIST_PREFIX = "blacklist:";
+    private static final String REVOCATION_CHANNEL = "token:revoked";
+    private static final int SCAN_BATCH = 1000;
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.token-revocation.expected-revocations:200000}")
+    private long expectedRevocations;
+
+    @Value("${app.token-revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private final Object filterLock = new Object();
+    private volatile BloomFilter filter;
+    // До первой загрузки из Redis фильтр ничего не знает — проверяем напрямую
+    private volatile boolean ready;
+    // Отзывы, пришедшие во время пересборки, переносятся в новый фильтр
+    private List<String> rebuildBuffer;
+
+    private final AtomicLong checks = new AtomicLong();
+    private final AtomicLong filteredOut = new AtomicLong();
+    private final AtomicLong redisLookups = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final AtomicLong revocations = new AtomicLong();
+
+    @PostConstruct
+    void subscribe() {
+        filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        listenerContainer.addMessageListener((message, pattern) ->
+                addLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(REVOCATION_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            migrateLegacyBlacklist();
+            rebuild();
+            ready = true;
+        } catch (Exception e) {
+            log.warn("Token revocation filter not loaded, checking Redis directly: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Идентификатор токена: jti, для токенов без него (выпущены до появления claim) — SHA-256 от JWT.
+     */
+    public String tokenId(Claims claims, String token) {
+        String jti = claims != null ? claims.getId() : null;
+        return jti != null && !jti.isBlank() ? jti : sha256(token);
+    }
+
+    public boolean isRevoked(Claims claims, String token) {
+        return isRevoked(tokenId(claims, token));
+    }
+
+    public boolean isRevoked(String tokenId) {
+        checks.incrementAndGet();
+        if (ready && !filter.mightContain(tokenId)) {
+            filteredOut.incrementAndGet();
+            return false;
+        }
+        redisLookups.incrementAndGet();
+        boolean revoked = Boolean.TRUE.equals(stringRedisTemplate.hasKey(REVOKED_PREFIX + tokenId));
+        if (!revoked && ready) {
+            falsePositives.incrementAndGet();
+        }
+        return revoked;
+    }
+
+    /**
+     * Быстрая проверка для кешированных токенов: false — точно не отозван.
+     */
+    public boolean mightBeRevoked(String tokenId) {
+        return !ready || filter.mightContain(tokenId);
+    }
+
+    /**
+     * Отзывает токен до конца срока его действия. Невалидный или истекший токен отзывать не нужно.
+     */
+    public void revoke(String token) {
+        if (token == null) {
+            return;
+        }
+        Claims claims = jwtTokenProvider.parseValidClaims(token);
+        if (claims == null || claims.getExpiration() == null) {
+            return;
+        }
+        long ttlMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+        if (ttlMs <= 0) {
+            return;
+        }
+
+        String tokenId = tokenId(claims, token);
+        stringRedisTemplate.opsForValue().set(REVOKED_PREFIX + tokenId, "1", ttlMs, TimeUnit.MILLISECONDS);
+        addLocal(tokenId);
+        revocations.incrementAndGet();
+        try {
+            stringRedisTemplate.convertAndSend(REVOCATION_CHANNEL, tokenId);
+        } catch (Exception e) {
+            // Остальные узлы подхватят отзыв при ближайшей пересборке фильтра
+            log.warn("Failed to publish token revocation: {}", e.getMessage());
+        }
+    }
+
+    // Пересборка: истекшие отзывы уходят из фильтра, пропущенные pub/sub-сообщения догоняются
+    @Scheduled(fixedDelayString = "${app.token-revocation.rebuild-ms:600000}",
+            initialDelayString = "${app.token-revocation.rebuild-ms:600000}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+            ready = true;
+        } catch (Exception e) {
+            log.warn("Token revocation filter rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    public RevocationStats getStats() {
+        BloomFilter current = filter;
+        return new RevocationStats(ready, current.bitCount(), current.hashFunctions(), current.insertions(),
+                checks.get(), filteredOut.get(), redisLookups.get(), falsePositives.get(), revocations.get());
+    }
+
+    private void rebuild() {
+        synchronized (filterLock) {
+            rebuildBuffer = new ArrayList<>();
+        }
+        BloomFilter fresh = new BloomFilter(expectedRevocations, falsePositiveRate);
+        try {
+            int loaded = 0;
+            ScanOptions options = ScanOptions.scanOptions().match(REVOKED_PREFIX + "*").count(SCAN_BATCH).build();
+            try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    fresh.put(cursor.next().substring(REVOKED_PREFIX.length()));
+                    loaded++;
+                }
+            }
+            synchronized (filterLock) {
+                rebuildBuffer.forEach(fresh::put);
+                filter = fresh;
+            }
+            log.debug("Token revocation filter rebuilt: {} entries", loaded);
+        } finally {
+            synchronized (filterLock) {
+                rebuildBuffer = null;
+            }
+        }
+    }
+
+    private void addLocal(String tokenId) {
+        synchronized (filterLock) {
+            filter.put(tokenId);
+            if (rebuildBuffer != null) {
+                rebuildBuffer.add(tokenId);
+            }
+        }
+    }
+
+    // Старые записи blacklist:<JWT> переводим в revoked:<sha256> с тем же оставшимся TTL
+    private void migrateLegacyBlacklist() {
+        ScanOptions options = ScanOptions.scanOptions().match(LEGACY_BLACKLIST_PREFIX + "*").count(SCAN_BATCH).build();
+        List<String> legacyKeys = new ArrayList<>();
+        try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+            cursor.forEachRemaining(legacyKeys::add);
+        }
+        for (String key : legacyKeys) {
+            Long ttlMs = stringRedisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+            if (ttlMs != null && ttlMs > 0) {
+                String tokenId = sha256(key.substring(LEGACY_BLACKLIST_PREFIX.length()));
+                stringRedisTemplate.opsForValue().set(REVOKED_PREFIX + tokenId, "1", ttlMs, TimeUnit.MILLISECONDS);
+            }
+            stringRedisTemplate.delete(key);
+        }
+        if (!legacyKeys.isEmpty()) {
+            log.info("Migrated {} legacy token blacklist entries", legacyKeys.size());
+        }
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record RevocationStats(boolean ready, long filterBits, int hashFunctions, long filterEntries,
+                                  long checks, long filteredOut, long redisLookups, long falsePositives,
+                                  long revocations) {
+    }
+}
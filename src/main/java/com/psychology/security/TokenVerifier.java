@@ -0,0 +1,93 @@
+package com.psychology.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Однопроходная проверка JWT: подпись, срок действия и отзыв (TokenRevocationService).
+ * Результат успешной проверки кешируется на короткое время (не дольше срока жизни токена),
+ * так что повторные запросы с тем же токеном обходятся без разбора и без Redis;
+ * отзыв на любом узле снимает кеш через Bloom-фильтр отзывов.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVerifier {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Value("${app.token-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${app.token-cache.max-size:50000}")
+    private int maxSize;
+
+    private final Map<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+
+    public enum Status { VALID, INVALID, REVOKED }
+
+    public record VerifiedToken(String subject, String tokenId, long expiresAtMs, long cachedUntilMs) {
+    }
+
+    public record Result(Status status, VerifiedToken token) {
+        public boolean isValid() {
+            return status == Status.VALID;
+        }
+    }
+
+    public Result verify(String token) {
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = verified.get(token);
+        if (cached != null) {
+            if (cached.cachedUntilMs() > now && !tokenRevocationService.mightBeRevoked(cached.tokenId())) {
+                return new Result(Status.VALID, cached);
+            }
+            verified.remove(token);
+        }
+
+        Claims claims = jwtTokenProvider.parseValidClaims(token);
+        if (claims == null) {
+            return new Result(Status.INVALID, null);
+        }
+
+        String tokenId = tokenRevocationService.tokenId(claims, token);
+        if (tokenRevocationService.isRevoked(tokenId)) {
+            return new Result(Status.REVOKED, null);
+        }
+
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : now;
+        VerifiedToken result = new VerifiedToken(claims.getSubject(), tokenId, expiresAt,
+                Math.min(expiresAt, now + ttlSeconds * 1000));
+        verified.put(token, result);
+        evictIfNeeded(now);
+        return new Result(Status.VALID, result);
+    }
+
+    // Вызывается при отзыве токена (logout, refresh)
+    public void evict(String token) {
+        if (token != null) {
+            verified.remove(token);
+        }
+    }
+
+    private void evictIfNeeded(long now) {
+        if (verified.size() <= maxSize) {
+            return;
+        }
+        verified.values().removeIf(v -> v.cachedUntilMs() <= now);
+        Iterator<String> keys = verified.keySet().iterator();
+        while (verified.size() > maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
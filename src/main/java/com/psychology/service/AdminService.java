@@ -1,11 +1,13 @@
 package com.psychology.service;
 
 import com.psychology.controller.AdminController;
+import com.psychology.event.UserAccountChangedEvent;
 import com.psychology.model.entity.Psychologist;
 import com.psychology.repository.PsychologistRepository;
 import com.psychology.repository.ClientRepository;
 import com.psychology.repository.SessionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +26,7 @@ public class AdminService {
     private final ClientRepository clientRepository;
     private final SessionRepository sessionRepository;
     private final StringRedisTemplate stringRedisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Psychologist> getPendingPsychologists() {
         return psychologistRepository.findByVerifiedFalse();
@@ -45,7 +48,10 @@ public class AdminService {
         psychologist.setVerified(true);
         psychologist.setVerifiedAt(LocalDateTime.now());
 
-        return psychologistRepository.save(psychologist);
+        Psychologist saved = psychologistRepository.save(psychologist);
+        // Снимок principal хранит флаг верификации — сбрасываем, чтобы доступ открылся сразу
+        eventPublisher.publishEvent(new UserAccountChangedEvent(saved.getId(), saved.getPhone()));
+        return saved;
     }
 
     @Transactional
@@ -61,6 +67,7 @@ public class AdminService {
         // или сохранить причину в базе данных
 
         psychologistRepository.delete(psychologist);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(psychologist.getId(), psychologist.getPhone()));
     }
 
     public AdminController.AdminStats getAdminStats() {
@@ -1,6 +1,7 @@
 package com.psychology.service;
 
 import com.psychology.dto.AuthDTO.*;
+import com.psychology.event.UserAccountChangedEvent;
 import com.psychology.model.entity.Client;
 import com.psychology.model.entity.Invite;
 import com.psychology.model.entity.Psychologist;
@@ -11,14 +12,16 @@ import com.psychology.repository.InviteRepository;
 import com.psychology.repository.PsychologistRepository;
 import com.psychology.repository.UserRepository;
 import com.psychology.security.JwtTokenProvider;
+import com.psychology.security.TokenRevocationService;
+import com.psychology.security.TokenVerifier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
@@ -31,8 +34,10 @@ public class AuthService {
     private final OTPService otpService;
     private final JwtTokenProvider jwtTokenProvider;
     private final StringRedisTemplate stringRedisTemplate;
+    private final TokenVerifier tokenVerifier;
+    private final TokenRevocationService tokenRevocationService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    private static final String BLACKLIST_PREFIX = "blacklist:";
     private static final String REFRESH_PREFIX = "refresh:";
 
     public record AuthResult(AuthResponse response, String refreshToken) {}
@@ -59,17 +64,16 @@ public class AuthService {
     }
 
     public AuthResult refreshToken(String refreshToken) {
-        // Проверяем, не в черном списке ли токен
-        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(BLACKLIST_PREFIX + refreshToken))) {
+        // Валидируем refresh token и проверяем, не в черном списке ли он
+        TokenVerifier.Result verification = tokenVerifier.verify(refreshToken);
+        if (verification.status() == TokenVerifier.Status.REVOKED) {
             throw new RuntimeException("Token is blacklisted");
         }
-
-        // Валидируем refresh token
-        if (!jwtTokenProvider.validateToken(refreshToken)) {
+        if (!verification.isValid()) {
             throw new RuntimeException("Invalid refresh token");
         }
 
-        String phone = jwtTokenProvider.extractUsername(refreshToken);
+        String phone = verification.token().subject();
         var user = userRepository.findByPhone(phone)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -79,13 +83,9 @@ public class AuthService {
             throw new RuntimeException("Refresh token mismatch");
         }
 
-        // Добавляем старый refresh token в blacklist
-        stringRedisTemplate.opsForValue().set(
-                BLACKLIST_PREFIX + refreshToken,
-                "blacklisted",
-                jwtTokenProvider.getRefreshTokenExpirationMs(), // Время жизни refresh token
-                TimeUnit.MILLISECONDS
-        );
+        // Отзываем старый refresh token до конца его срока
+        tokenRevocationService.revoke(refreshToken);
+        tokenVerifier.evict(refreshToken);
 
         // Генерируем новую пару токенов
         return generateAuthForUser(user);
@@ -152,15 +152,10 @@ public class AuthService {
 
 
     public void logout(String accessToken, String refreshToken) {
-        // Добавляем токены в черный список
+        // Отзываем access token на оставшийся срок его действия
         if (accessToken != null) {
-            // Добавляем access token в черный список на 30 минут
-            stringRedisTemplate.opsForValue().set(
-                    BLACKLIST_PREFIX + accessToken,
-                    "blacklisted",
-                    30, // 30 минут
-                    java.util.concurrent.TimeUnit.MINUTES
-            );
+            tokenRevocationService.revoke(accessToken);
+            tokenVerifier.evict(accessToken);
         }
 
         String phone = null;
@@ -218,6 +213,7 @@ public class AuthService {
         String oldPhone = user.getPhone();
         user.setPhone(newPhone);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(user.getId(), oldPhone));
 
         // Сбрасываем старый refresh token
         stringRedisTemplate.delete(REFRESH_PREFIX + oldPhone);
@@ -1,19 +1,32 @@
 package com.psychology.service;
 
+import com.psychology.cache.UnreadCounters;
 import com.psychology.dto.ChatDTO;
+import com.psychology.event.MessageSentEvent;
+import com.psychology.event.MessagesReadEvent;
+import com.psychology.model.entity.ConversationSummary;
 import com.psychology.model.entity.Message;
 import com.psychology.model.entity.User;
 import com.psychology.model.entity.Psychologist;
 import com.psychology.model.entity.Client;
+import com.psychology.repository.ConversationSummaryRepository;
 import com.psychology.repository.MessageRepository;
 import com.psychology.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,6 +39,14 @@ public class ChatService {
     private final UserRepository userRepository;
     private final SimpMessagingTemplate messagingTemplate;
     private final NotificationService notificationService; // Добавляем зависимость
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConversationSummaryRepository conversationSummaryRepository;
+    private final UnreadCounters unreadCounters;
+
+    private static final int DEFAULT_PAGE_LIMIT = 50;
+    private static final int MAX_PAGE_LIMIT = 200;
+    private static final int DEFAULT_INBOX_LIMIT = 50;
+    private static final int MAX_INBOX_LIMIT = 200;
 
     @Transactional
     public ChatDTO.MessageResponse sendMessage(User sender, ChatDTO.SendMessageRequest request) {
@@ -66,6 +87,8 @@ public class ChatService {
         message.setSentAt(LocalDateTime.now());
 
         messageRepository.save(message);
+        updateConversationSummaries(message);
+        eventPublisher.publishEvent(new MessageSentEvent(message.getId(), sender.getId(), receiver.getId()));
 
         // Создаем DTO для ответа
         ChatDTO.MessageResponse response = convertToDTO(message);
@@ -97,6 +120,46 @@ public class ChatService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public ChatDTO.ConversationPage getConversationPage(User currentUser, Long otherUserId,
+                                                        String before, Integer limit) {
+        log.info("Getting conversation page between {} and {} before {}", currentUser.getId(), otherUserId, before);
+
+        User otherUser = userRepository.findById(otherUserId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (!canSeeConversation(currentUser, otherUser)) {
+            throw new RuntimeException("Cannot access this conversation");
+        }
+
+        int pageSize = limit == null ? DEFAULT_PAGE_LIMIT : Math.max(1, Math.min(limit, MAX_PAGE_LIMIT));
+        // Берем на одну запись больше, чтобы понять, есть ли еще страница
+        PageRequest pageable = PageRequest.of(0, pageSize + 1);
+
+        List<Message> messages;
+        if (before == null || before.isBlank()) {
+            messages = messageRepository.findConversationPage(currentUser.getId(), otherUserId, pageable);
+        } else {
+            MessageCursor cursor = MessageCursor.decode(before);
+            messages = messageRepository.findConversationPageBefore(
+                    currentUser.getId(), otherUserId, cursor.sentAt(), cursor.id(), pageable);
+        }
+
+        boolean hasMore = messages.size() > pageSize;
+        List<Message> page = new ArrayList<>(hasMore ? messages.subList(0, pageSize) : messages);
+
+        // Курсор указывает на самое старое сообщение страницы
+        String nextCursor = hasMore ? MessageCursor.encode(page.get(page.size() - 1)) : null;
+
+        // Отдаем страницу в хронологическом порядке, как и полная переписка
+        Collections.reverse(page);
+        List<ChatDTO.MessageResponse> dtos = page.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        return new ChatDTO.ConversationPage(dtos, nextCursor, hasMore);
+    }
+
     @Transactional(readOnly = true)
     public List<ChatDTO.MessageResponse> getRecentMessages(User user, LocalDateTime since) {
         log.info("Getting recent messages for user {} since {}", user.getId(), since);
@@ -120,13 +183,65 @@ public class ChatService {
             throw new RuntimeException("Cannot mark this message as read");
         }
 
+        boolean wasUnread = !message.isRead();
         message.setRead(true);
         messageRepository.save(message);
+        if (wasUnread) {
+            conversationSummaryRepository.decrementUnread(user.getId(), message.getSender().getId(), 1);
+        }
+        eventPublisher.publishEvent(new MessagesReadEvent(user.getId(), message.getSender().getId(), wasUnread ? 1 : 0));
+    }
+
+    /**
+     * Отмечает прочитанными все входящие от собеседника сообщения с id <= upToMessageId.
+     * Возвращает одно подтверждение на всю пачку (readCount = 0, если нечего отмечать).
+     */
+    @Transactional
+    public ChatDTO.ReadReceipt markReadUpTo(User user, Long peerId, Long upToMessageId) {
+        if (peerId == null || upToMessageId == null) {
+            throw new RuntimeException("Peer and message id are required");
+        }
+        log.info("Marking messages from {} up to {} as read by user {}", peerId, upToMessageId, user.getId());
+
+        User peer = userRepository.findById(peerId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (!canSeeConversation(user, peer)) {
+            throw new RuntimeException("Cannot access this conversation");
+        }
+
+        int updated = messageRepository.markReadUpTo(user.getId(), peerId, upToMessageId);
+        if (updated > 0) {
+            conversationSummaryRepository.decrementUnread(user.getId(), peerId, updated);
+            eventPublisher.publishEvent(new MessagesReadEvent(user.getId(), peerId, updated));
+        }
+
+        return new ChatDTO.ReadReceipt(user.getId(), upToMessageId, updated, LocalDateTime.now());
+    }
+
+    // Список чатов пользователя, самые свежие диалоги первыми
+    @Transactional(readOnly = true)
+    public List<ChatDTO.ConversationSummaryResponse> getConversations(User user, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_INBOX_LIMIT : Math.max(1, Math.min(limit, MAX_INBOX_LIMIT));
+        return conversationSummaryRepository.findInbox(user.getId(), PageRequest.of(0, pageSize)).stream()
+                .map(summary -> convertToDTO(summary, user))
+                .collect(Collectors.toList());
+    }
+
+    // Первый запуск со сводкой: заполняем ее из существующей переписки
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillConversationSummaries() {
+        if (conversationSummaryRepository.count() > 0 || messageRepository.count() == 0) {
+            return;
+        }
+        int rows = conversationSummaryRepository.backfillFromMessages();
+        log.info("Conversation summaries backfilled: {} rows", rows);
     }
 
     @Transactional(readOnly = true)
     public Long getUnreadCount(User user) {
-        return messageRepository.countByReceiverIdAndReadFalse(user.getId());
+        return unreadCounters.get(UnreadCounters.Kind.MESSAGES, user.getId(),
+                () -> messageRepository.countByReceiverIdAndReadFalse(user.getId()));
     }
 
     @Transactional(readOnly = true)
@@ -162,7 +277,44 @@ public class ChatService {
         return false;
     }
 
-    private ChatDTO.MessageResponse convertToDTO(Message message) {
+    // Строка диалога у отправителя (без непрочитанных) и у получателя (+1 непрочитанное)
+    private void updateConversationSummaries(Message message) {
+        Long senderId = message.getSender().getId();
+        Long receiverId = message.getReceiver().getId();
+        String snippet = snippet(message);
+        conversationSummaryRepository.upsertLastMessage(senderId, receiverId, message.getId(), snippet,
+                message.getSentAt(), senderId, 0);
+        conversationSummaryRepository.upsertLastMessage(receiverId, senderId, message.getId(), snippet,
+                message.getSentAt(), senderId, 1);
+    }
+
+    // То же правило, что в ConversationSummaryRepository.backfillFromMessages; длина — в символах, как LEFT в Postgres
+    static String snippet(Message message) {
+        String content = message.getContent();
+        if (content == null || content.isBlank()) {
+            return ConversationSummaryRepository.ATTACHMENT_SNIPPET;
+        }
+        int limit = ConversationSummaryRepository.SNIPPET_LENGTH;
+        if (content.codePointCount(0, content.length()) <= limit) {
+            return content;
+        }
+        return content.substring(0, content.offsetByCodePoints(0, limit)) + ConversationSummaryRepository.SNIPPET_ELLIPSIS;
+    }
+
+    private ChatDTO.ConversationSummaryResponse convertToDTO(ConversationSummary summary, User user) {
+        ChatDTO.ConversationSummaryResponse dto = new ChatDTO.ConversationSummaryResponse();
+        dto.setPeerId(summary.getPeer().getId());
+        dto.setPeerName(getUserName(summary.getPeer()));
+        dto.setPeerRole(summary.getPeer().getRole().name());
+        dto.setLastMessageId(summary.getLastMessageId());
+        dto.setLastMessageSnippet(summary.getLastMessageSnippet());
+        dto.setLastMessageAt(summary.getLastMessageAt());
+        dto.setLastMessageMine(user.getId().equals(summary.getLastSenderId()));
+        dto.setUnreadCount(summary.getUnreadCount());
+        return dto;
+    }
+
+    public ChatDTO.MessageResponse convertToDTO(Message message) {
         ChatDTO.MessageResponse dto = new ChatDTO.MessageResponse();
         dto.setId(message.getId());
         dto.setSenderId(message.getSender().getId());
@@ -177,6 +329,27 @@ public class ChatService {
         return dto;
     }
 
+    // Непрозрачный курсор: base64url("sentAt|id")
+    private record MessageCursor(LocalDateTime sentAt, Long id) {
+
+        static String encode(Message message) {
+            String raw = message.getSentAt() + "|" + message.getId();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static MessageCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new MessageCursor(
+                        LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+    }
+
     private boolean isImageAttachment(String attachmentUrl) {
         String lower = attachmentUrl.trim().toLowerCase();
         return lower.startsWith("data:image/") ||
@@ -1,9 +1,11 @@
 package com.psychology.service;
 
 import com.psychology.controller.ClientManagementController.*;
+import com.psychology.event.UserAccountChangedEvent;
 import com.psychology.model.entity.*;
 import com.psychology.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +25,9 @@ public class ClientManagementService {
     private final RecommendationRepository recommendationRepository;
     private final MessageRepository messageRepository;
     private final NotificationRepository notificationRepository;
+    private final ConversationSummaryRepository conversationSummaryRepository;
+    private final JournalMoodDailyRepository journalMoodDailyRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Client> getAllClients(Psychologist psychologist) {
         return clientRepository.findByPsychologistId(psychologist.getId());
@@ -196,12 +201,15 @@ public class ClientManagementService {
 
         // Удаляем связанные данные
         messageRepository.deleteAllByUserId(clientId);
+        conversationSummaryRepository.deleteAllByUserId(clientId);
         notificationRepository.deleteByUserId(clientId);
         recommendationRepository.deleteByClientId(clientId);
         journalEntryRepository.deleteByClientId(clientId);
+        journalMoodDailyRepository.deleteByClientId(clientId);
         sessionRepository.deleteByClientId(clientId);
 
         // Удаляем клиента (и запись в users)
         clientRepository.delete(client);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(clientId, client.getPhone()));
     }
 }
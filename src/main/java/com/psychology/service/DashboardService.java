@@ -1,10 +1,14 @@
 package com.psychology.service;
 
+import com.psychology.cache.DashboardCache;
+import com.psychology.cache.PrincipalCache;
+import com.psychology.cache.UnreadCounters;
 import com.psychology.controller.DashboardController.*;
 import com.psychology.model.entity.*;
 import com.psychology.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -21,120 +25,115 @@ public class DashboardService {
 
     private final SessionRepository sessionRepository;
     private final ClientRepository clientRepository;
+    private final PsychologistRepository psychologistRepository;
     private final MessageRepository messageRepository;
     private final RecommendationRepository recommendationRepository;
     private final JournalEntryRepository journalEntryRepository;
     private final NotificationService notificationService;
+    private final DashboardStatsRepository dashboardStatsRepository;
+    private final DashboardCache dashboardCache;
+    private final UnreadCounters unreadCounters;
+
+    // Сеансы в этих статусах не считаются предстоящими
+    private static final List<Session.SessionStatus> FINISHED_STATUSES =
+            List.of(Session.SessionStatus.CANCELLED, Session.SessionStatus.COMPLETED);
 
     public PsychologistDashboard getPsychologistDashboard(Psychologist psychologist) {
+        return dashboardCache.get(psychologist.getId(), () -> buildPsychologistDashboard(psychologist));
+    }
+
+    // id клиента и его психолога берутся из снимка principal, сущность клиента не загружается
+    public ClientDashboard getClientDashboard(PrincipalCache.PrincipalSnapshot client) {
+        return dashboardCache.get(client.id(), () -> buildClientDashboard(client.id(), client.psychologistId()));
+    }
+
+    private PsychologistDashboard buildPsychologistDashboard(Psychologist psychologist) {
         PsychologistDashboard dashboard = new PsychologistDashboard();
 
         Long psychologistId = psychologist.getId();
 
-        // Общее количество клиентов
-        List<Client> allClients = clientRepository.findByPsychologistId(psychologistId);
-        dashboard.setTotalClients(allClients.size());
-
-        // Активные клиенты (с сеансами в ближайшие 30 дней)
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime thirtyDaysFromNow = now.plusDays(30);
-
-        long activeClients = allClients.stream()
-                .filter(client -> {
-                    List<Session> futureSessions = sessionRepository.findByClientIdAndScheduledAtBetween(
-                            client.getId(), now, thirtyDaysFromNow);
-                    return futureSessions.stream().anyMatch(this::isUpcomingStatus);
-                })
-                .count();
-        dashboard.setActiveClients(activeClients);
-
-        // Сеансы на сегодня
         LocalDateTime startOfToday = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfToday = startOfToday.plusDays(1);
-
-        long sessionsToday = sessionRepository.findByPsychologistIdAndScheduledAtBetween(
-                psychologistId, startOfToday, endOfToday).size();
-        dashboard.setUpcomingSessionsToday(sessionsToday);
-
-        // Сеансы на эту неделю
-        LocalDateTime startOfWeek = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfWeek = startOfWeek.plusDays(7);
-
-        long sessionsThisWeek = sessionRepository.findByPsychologistIdAndScheduledAtBetween(
-                psychologistId, startOfWeek, endOfWeek).size();
-        dashboard.setUpcomingSessionsThisWeek(sessionsThisWeek);
-
-        // Невыполненные рекомендации
-        long pendingRecommendations = allClients.stream()
-                .mapToLong(client -> recommendationRepository.countByClientIdAndCompleted(client.getId(), false))
-                .sum();
-        dashboard.setPendingRecommendations(pendingRecommendations);
-
-        // Непрочитанные сообщения
-        long unreadMessages = allClients.stream()
-                .mapToLong(client -> messageRepository.countByReceiverIdAndReadFalse(client.getId()))
-                .sum();
-        dashboard.setUnreadMessages(unreadMessages);
+        LocalDateTime startOfMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
 
-        // Ближайшие 5 сеансов
-        List<Session> nextSessions = sessionRepository.findByPsychologistIdOrderByScheduledAtDesc(psychologistId)
-                .stream()
-                .filter(session -> session.getScheduledAt().isAfter(now))
-                .filter(this::isUpcomingStatus)
-                .sorted(Comparator.comparing(Session::getScheduledAt))
-                .limit(5)
-                .collect(Collectors.toList());
-        dashboard.setNextSessions(nextSessions);
+        // Все счетчики одним запросом
+        DashboardStatsRepository.PsychologistDashboardCounters counters =
+                dashboardStatsRepository.getPsychologistCounters(
+                        psychologistId,
+                        now,
+                        now.plusDays(30),      // активные клиенты: сеансы в ближайшие 30 дней
+                        startOfToday,
+                        startOfToday.plusDays(1),
+                        startOfToday.plusDays(7),
+                        startOfMonth);
+
+        dashboard.setTotalClients(valueOf(counters.getTotalClients()));
+        dashboard.setActiveClients(valueOf(counters.getActiveClients()));
+        dashboard.setUpcomingSessionsToday(valueOf(counters.getSessionsToday()));
+        dashboard.setUpcomingSessionsThisWeek(valueOf(counters.getSessionsThisWeek()));
+        dashboard.setPendingRecommendations(valueOf(counters.getPendingRecommendations()));
+        dashboard.setUnreadMessages(valueOf(counters.getUnreadMessages()));
+
+        // Ближайшие 5 сеансов (LIMIT 5 на стороне БД)
+        dashboard.setNextSessions(initialized(sessionRepository
+                .findTop5ByPsychologistIdAndScheduledAtAfterAndStatusNotInOrderByScheduledAtAsc(
+                        psychologistId, now, FINISHED_STATUSES)));
 
         // Статистика за текущий месяц
-        dashboard.setMonthlyStats(getMonthlyStats(psychologistId));
+        MonthlyStats monthlyStats = new MonthlyStats();
+        monthlyStats.setSessionsCompleted(valueOf(counters.getMonthSessionsCompleted()));
+        monthlyStats.setSessionsScheduled(valueOf(counters.getMonthSessionsScheduled()));
+        monthlyStats.setNewClients(valueOf(counters.getMonthNewClients()));
+        // Revenue можно добавить позже, если будет платежная система
+        dashboard.setMonthlyStats(monthlyStats);
 
         return dashboard;
     }
 
-    public ClientDashboard getClientDashboard(Client client) {
+    private ClientDashboard buildClientDashboard(Long clientId, Long psychologistId) {
         ClientDashboard dashboard = new ClientDashboard();
 
-        // Информация о психологе
-        Psychologist psychologist = client.getPsychologist();
-        PsychologistInfo psychologistInfo = new PsychologistInfo();
-        psychologistInfo.setId(psychologist.getId());
-        psychologistInfo.setFullName(psychologist.getFullName());
-        psychologistInfo.setSpecialization(psychologist.getSpecialization());
-        psychologistInfo.setEmail(psychologist.getEmail());
-        dashboard.setPsychologist(psychologistInfo);
+        // Информация о психологе: из БД читается только психолог, его поля нужны в ответе
+        if (psychologistId != null) {
+            psychologistRepository.findById(psychologistId).ifPresent(psychologist -> {
+                PsychologistInfo psychologistInfo = new PsychologistInfo();
+                psychologistInfo.setId(psychologist.getId());
+                psychologistInfo.setFullName(psychologist.getFullName());
+                psychologistInfo.setSpecialization(psychologist.getSpecialization());
+                psychologistInfo.setEmail(psychologist.getEmail());
+                dashboard.setPsychologist(psychologistInfo);
+            });
+        }
 
         // Следующий сеанс
         LocalDateTime now = LocalDateTime.now();
-        List<Session> upcomingSessions = sessionRepository.findByClientIdOrderByScheduledAtDesc(client.getId())
-                .stream()
-                .filter(session -> session.getScheduledAt().isAfter(now))
-                .filter(this::isUpcomingStatus)
-                .sorted(Comparator.comparing(Session::getScheduledAt))
-                .collect(Collectors.toList());
+        List<Session> upcomingSessions = initialized(sessionRepository
+                .findTop5ByClientIdAndScheduledAtAfterAndStatusNotInOrderByScheduledAtAsc(
+                        clientId, now, FINISHED_STATUSES));
 
         if (!upcomingSessions.isEmpty()) {
             dashboard.setNextSession(upcomingSessions.get(0));
-            dashboard.setUpcomingSessions(upcomingSessions.stream().limit(5).collect(Collectors.toList()));
+            dashboard.setUpcomingSessions(upcomingSessions);
         }
 
         // Непрочитанные сообщения
-        long unreadMessages = messageRepository.countByReceiverIdAndReadFalse(client.getId());
+        long unreadMessages = unreadCounters.get(UnreadCounters.Kind.MESSAGES, clientId,
+                () -> messageRepository.countByReceiverIdAndReadFalse(clientId));
         dashboard.setUnreadMessages(unreadMessages);
 
         // Активные рекомендации
-        long pendingRecommendations = recommendationRepository.countByClientIdAndCompleted(client.getId(), false);
+        long pendingRecommendations = recommendationRepository.countByClientIdAndCompleted(clientId, false);
         dashboard.setPendingRecommendations(pendingRecommendations);
 
         // Записи в дневнике за текущий месяц
         LocalDateTime startOfMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
         long journalEntriesThisMonth = journalEntryRepository.countByClientIdAndCreatedAtBetween(
-                client.getId(), startOfMonth, now);
+                clientId, startOfMonth, now);
         dashboard.setJournalEntriesThisMonth(journalEntriesThisMonth);
 
         // Последние уведомления
         List<NotificationService.NotificationDTO> recentNotifications =
-                notificationService.getUserNotifications(client, 0, 5)
+                notificationService.getUserNotifications(clientRepository.getReferenceById(clientId), 0, 5)
                         .stream()
                         .map(notificationService::convertToDTO)
                         .collect(Collectors.toList());
@@ -143,9 +142,17 @@ public class DashboardService {
         return dashboard;
     }
 
-    private boolean isUpcomingStatus(Session session) {
-        return session.getStatus() != Session.SessionStatus.CANCELLED
-                && session.getStatus() != Session.SessionStatus.COMPLETED;
+    // Дашборды кешируются и сериализуются из разных потоков: ленивые связи загружаем заранее
+    private List<Session> initialized(List<Session> sessions) {
+        sessions.forEach(session -> {
+            Hibernate.initialize(session.getPsychologist());
+            Hibernate.initialize(session.getClient());
+        });
+        return sessions;
+    }
+
+    private long valueOf(Long count) {
+        return count != null ? count : 0L;
     }
 
     public PsychologistStats getPsychologistStats(Psychologist psychologist, LocalDateTime start, LocalDateTime end) {
@@ -223,48 +230,6 @@ public class DashboardService {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime thirtyDaysFromNow = now.plusDays(30);
 
-        List<Client> allClients = clientRepository.findByPsychologistId(psychologist.getId());
-
-        return allClients.stream()
-                .filter(client -> {
-                    List<Session> futureSessions = sessionRepository.findByClientIdAndScheduledAtBetween(
-                            client.getId(), now, thirtyDaysFromNow);
-                    return !futureSessions.isEmpty();
-                })
-                .collect(Collectors.toList());
-    }
-
-    private MonthlyStats getMonthlyStats(Long psychologistId) {
-        MonthlyStats stats = new MonthlyStats();
-
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime startOfMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-
-        // Сеансы за текущий месяц
-        List<Session> monthlySessions = sessionRepository.findByPsychologistIdAndScheduledAtBetween(
-                psychologistId, startOfMonth, now);
-
-        stats.setSessionsCompleted((long) monthlySessions.stream()
-                .filter(s -> s.getStatus() == Session.SessionStatus.COMPLETED)
-                .count());
-
-        stats.setSessionsScheduled((long) monthlySessions.stream()
-                .filter(s -> s.getStatus() == Session.SessionStatus.SCHEDULED ||
-                        s.getStatus() == Session.SessionStatus.CONFIRMED)
-                .count());
-
-        // Новые клиенты за текущий месяц
-        List<Client> monthlyClients = clientRepository.findByPsychologistId(psychologistId)
-                .stream()
-                .filter(client -> client.getLinkedAt() != null &&
-                        !client.getLinkedAt().isBefore(startOfMonth) &&
-                        !client.getLinkedAt().isAfter(now))
-                .collect(Collectors.toList());
-
-        stats.setNewClients((long) monthlyClients.size());
-
-        // Revenue можно добавить позже, если будет платежная система
-
-        return stats;
+        return sessionRepository.findClientsWithSessionsBetween(psychologist.getId(), now, thirtyDaysFromNow);
     }
 }
@@ -3,13 +3,17 @@ package com.psychology.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.UUID;
 
 @Service
@@ -59,8 +63,28 @@ public class FileStorageService {
         );
     }
 
-    public byte[] loadFile(String fileName) throws IOException {
-        Path filePath = Paths.get(uploadDir).resolve(fileName);
-        return Files.readAllBytes(filePath);
+    /**
+     * Файл для потоковой отдачи: содержимое не читается в память,
+     * Range-запросы обслуживаются регионами ресурса.
+     */
+    public StoredFile loadFileAsResource(String fileName) throws IOException {
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path filePath = root.resolve(fileName).normalize();
+
+        // Не выпускаем за пределы каталога загрузок
+        if (!filePath.startsWith(root) || !Files.isRegularFile(filePath)) {
+            throw new NoSuchFileException(fileName);
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        // Имена файлов уникальны (UUID), так что размера и даты изменения достаточно для ETag
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+
+        return new StoredFile(new FileSystemResource(filePath), size, lastModified, etag);
     }
+
+    public record StoredFile(Resource resource, long size, long lastModified, String etag) {}
 }
@@ -0,0 +1,203 @@
+package com.psychology.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psychology.repository.JournalEntryRepository;
+import com.psychology.repository.JournalEntryView;
+import com.psychology.repository.JournalMoodDailyRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Удаление записей дневника старше срока хранения пачками по индексу (created_at, id).
+ * Каждая пачка удаляется отдельной транзакцией; при включенной архивации строки пачки
+ * сначала дописываются в NDJSON.gz и сбрасываются на диск, и только потом удаляются.
+ * Память и блокировки ограничены размером пачки, прерванный прогон продолжается следующим запуском.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JournalRetentionService {
+
+    private static final DateTimeFormatter ARCHIVE_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final JournalEntryRepository journalEntryRepository;
+    private final JournalMoodDailyRepository journalMoodDailyRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.retention.journal.years:3}")
+    private int retentionYears;
+
+    @Value("${app.retention.journal.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.retention.journal.pause-ms:200}")
+    private long pauseMs;
+
+    // 0 — без ограничения; иначе остаток дочищается следующим прогоном
+    @Value("${app.retention.journal.max-batches-per-run:0}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.retention.journal.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${app.retention.journal.archive.dir:archive/journal}")
+    private String archiveDir;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicReference<RetentionRun> lastRun = new AtomicReference<>();
+
+    public RetentionRun purgeExpired() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Journal retention is already running, skipping");
+            return lastRun.get();
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime cutoff = startedAt.minusYears(retentionYears);
+        long start = System.currentTimeMillis();
+        long rowsDeleted = 0;
+        int batches = 0;
+        boolean completed = false;
+        ArchiveWriter archive = null;
+
+        try {
+            while (true) {
+                List<Long> ids = journalEntryRepository.findExpiredIds(cutoff, batchSize);
+                if (ids.isEmpty()) {
+                    completed = true;
+                    break;
+                }
+
+                if (archiveEnabled) {
+                    if (archive == null) {
+                        archive = new ArchiveWriter(archivePath(startedAt));
+                    }
+                    archive.write(journalEntryRepository.findViewsByIdIn(ids));
+                }
+
+                rowsDeleted += journalEntryRepository.deleteByIdIn(ids);
+                batches++;
+                lastRun.set(new RetentionRun(startedAt, null, cutoff, rowsDeleted, batches,
+                        System.currentTimeMillis() - start, false));
+
+                if (ids.size() < batchSize) {
+                    completed = true;
+                    break;
+                }
+                if (maxBatchesPerRun > 0 && batches >= maxBatchesPerRun) {
+                    log.info("Journal retention stopped after {} batches, will resume on next run", batches);
+                    break;
+                }
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Journal retention interrupted after {} rows", rowsDeleted);
+        } catch (IOException e) {
+            // Пачка не попала в архив — не удаляем ее, повторим следующим прогоном
+            log.error("Journal archive write failed after {} rows, stopping: {}", rowsDeleted, e.getMessage());
+        } finally {
+            closeArchive(archive);
+            if (rowsDeleted > 0) {
+                rebuildMoodRollup(cutoff.toLocalDate());
+            }
+            RetentionRun run = new RetentionRun(startedAt, LocalDateTime.now(), cutoff, rowsDeleted, batches,
+                    System.currentTimeMillis() - start, completed);
+            lastRun.set(run);
+            running.set(false);
+            log.info("Journal retention: deleted {} rows in {} batches ({} ms, {} rows/s)",
+                    run.rowsDeleted(), run.batches(), run.durationMs(), String.format("%.1f", run.rowsPerSecond()));
+        }
+
+        return lastRun.get();
+    }
+
+    public RetentionRun getLastRun() {
+        return lastRun.get();
+    }
+
+    // Граничный день удален частично — пересобираем сводку до него из оставшихся записей одной транзакцией
+    private void rebuildMoodRollup(LocalDate boundary) {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                journalMoodDailyRepository.deleteUpTo(boundary);
+                journalMoodDailyRepository.rebuildFromEntries(boundary);
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to rebuild journal mood rollup up to {}: {}", boundary, e.getMessage());
+        }
+    }
+
+    private Path archivePath(LocalDateTime startedAt) {
+        return Paths.get(archiveDir).toAbsolutePath().normalize()
+                .resolve("journal-" + startedAt.format(ARCHIVE_SUFFIX) + ".ndjson.gz");
+    }
+
+    private void closeArchive(ArchiveWriter archive) {
+        if (archive == null) {
+            return;
+        }
+        try {
+            archive.close();
+            log.info("Journal archive written: {} ({} rows)", archive.path, archive.rows);
+        } catch (IOException e) {
+            log.error("Failed to close journal archive {}: {}", archive.path, e.getMessage());
+        }
+    }
+
+    // Одна строка JSON на запись; после каждой пачки данные сбрасываются до диска (fsync)
+    private class ArchiveWriter implements Closeable {
+        private final Path path;
+        private final FileOutputStream file;
+        private final Writer writer;
+        private long rows;
+
+        ArchiveWriter(Path path) throws IOException {
+            Files.createDirectories(path.getParent());
+            this.path = path;
+            this.file = new FileOutputStream(path.toFile(), true);
+            this.writer = new BufferedWriter(new OutputStreamWriter(
+                    new GZIPOutputStream(file, 64 * 1024, true), StandardCharsets.UTF_8));
+        }
+
+        void write(List<JournalEntryView> entries) throws IOException {
+            for (JournalEntryView entry : entries) {
+                writer.write(objectMapper.writeValueAsString(entry));
+                writer.write('\n');
+            }
+            writer.flush();
+            file.getFD().sync();
+            rows += entries.size();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
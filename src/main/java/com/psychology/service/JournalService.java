@@ -2,12 +2,20 @@ package com.psychology.service;
 
 import com.psychology.controller.JournalController.JournalEntryRequest;
 import com.psychology.controller.JournalController.JournalStats;
+import com.psychology.controller.JournalController.MoodTrendPoint;
+import com.psychology.event.JournalEntryChangedEvent;
 import com.psychology.model.entity.JournalEntry;
 import com.psychology.model.entity.Client;
 import com.psychology.repository.JournalEntryRepository;
+import com.psychology.repository.JournalEntryView;
+import com.psychology.repository.JournalMoodDailyRepository;
 import com.psychology.repository.ClientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -16,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -26,9 +35,18 @@ public class JournalService {
 
     private final JournalEntryRepository journalEntryRepository;
     private final ClientRepository clientRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JournalMoodDailyRepository journalMoodDailyRepository;
+    private final JournalRetentionService journalRetentionService;
 
     private static final int MAX_CONTENT_LENGTH = 5000;
     private static final int MAX_ENTRIES_PER_DAY = 10;
+    private static final int TOP_TAGS_LIMIT = 5;
+    private static final int DEFAULT_TREND_DAYS = 30;
+    private static final int MAX_TREND_DAYS = 366;
+    private static final int MAX_SEARCH_TAGS = 10;
+    private static final int DEFAULT_SEARCH_PAGE_SIZE = 20;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
 
     @Transactional
     public JournalEntry createEntry(Client client, JournalEntryRequest request) {
@@ -51,7 +69,10 @@ public class JournalService {
         entry.setTags(request.getTags() != null ? request.getTags() : new ArrayList<>());
         entry.setCreatedAt(LocalDateTime.now());
 
-        return journalEntryRepository.save(entry);
+        JournalEntry saved = journalEntryRepository.save(entry);
+        adjustMoodRollup(client.getId(), saved.getCreatedAt(), saved.getMood(), 1);
+        eventPublisher.publishEvent(new JournalEntryChangedEvent(saved.getId(), client.getId()));
+        return saved;
     }
 
     public List<JournalEntry> getClientEntries(Long clientId, int page, int size) {
@@ -73,6 +94,7 @@ public class JournalService {
     @Transactional
     public JournalEntry updateEntry(Long clientId, Long entryId, JournalEntryRequest request) {
         JournalEntry entry = getClientEntry(clientId, entryId);
+        String previousMood = entry.getMood();
 
         if (request.getContent() != null) {
             validateContent(request.getContent());
@@ -85,6 +107,11 @@ public class JournalService {
             entry.setTags(request.getTags());
         }
 
+        if (!Objects.equals(previousMood, entry.getMood())) {
+            adjustMoodRollup(clientId, entry.getCreatedAt(), previousMood, -1);
+            adjustMoodRollup(clientId, entry.getCreatedAt(), entry.getMood(), 1);
+        }
+
         return journalEntryRepository.save(entry);
     }
 
@@ -92,16 +119,12 @@ public class JournalService {
     public void deleteEntry(Long clientId, Long entryId) {
         JournalEntry entry = getClientEntry(clientId, entryId);
         journalEntryRepository.delete(entry);
+        adjustMoodRollup(clientId, entry.getCreatedAt(), entry.getMood(), -1);
+        eventPublisher.publishEvent(new JournalEntryChangedEvent(entryId, clientId));
     }
 
     public List<JournalEntry> getClientEntriesForPsychologist(Long psychologistId, Long clientId, int page, int size) {
-        // Проверяем, что клиент принадлежит психологу
-        Client client = clientRepository.findById(clientId)
-                .orElseThrow(() -> new RuntimeException("Client not found"));
-
-        if (!client.getPsychologist().getId().equals(psychologistId)) {
-            throw new RuntimeException("Client does not belong to this psychologist");
-        }
+        checkClientBelongsTo(psychologistId, clientId);
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         return journalEntryRepository.findByClientId(clientId, pageable);
@@ -115,71 +138,116 @@ public class JournalService {
         return getClientEntry(clientId, entryId);
     }
 
-    public List<JournalEntry> searchEntriesByTag(Long clientId, String tag) {
-        List<JournalEntry> allEntries = journalEntryRepository.findByClientIdOrderByCreatedAtDesc(clientId);
-        return allEntries.stream()
-                .filter(entry -> entry.getTags() != null && entry.getTags().contains(tag))
+    @Transactional(readOnly = true)
+    public Page<JournalEntryView> searchEntriesByTags(Long clientId, List<String> tags, boolean matchAll,
+                                                      boolean includeContent, Integer page, Integer size) {
+        List<String> normalized = tags == null ? List.of() : tags.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .distinct()
                 .collect(Collectors.toList());
+        if (normalized.isEmpty()) {
+            throw new RuntimeException("At least one tag is required");
+        }
+        if (normalized.size() > MAX_SEARCH_TAGS) {
+            throw new RuntimeException("No more than " + MAX_SEARCH_TAGS + " tags per search");
+        }
+
+        int pageNumber = page != null ? Math.max(page, 0) : 0;
+        int pageSize = size != null ? Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE)) : DEFAULT_SEARCH_PAGE_SIZE;
+        return journalEntryRepository.searchByTags(clientId, normalized, matchAll, includeContent,
+                PageRequest.of(pageNumber, pageSize));
     }
 
+    // Счетчики и настроение — из дневной сводки (O(дней)), теги — агрегацией jsonb в Postgres
+    @Transactional(readOnly = true)
     public JournalStats getJournalStats(Long clientId) {
-        List<JournalEntry> entries = journalEntryRepository.findByClientIdOrderByCreatedAtDesc(clientId);
+        JournalStats stats = new JournalStats();
+        long total = journalMoodDailyRepository.sumEntries(clientId);
+        stats.setTotalEntries(total);
 
-        if (entries.isEmpty()) {
-            JournalStats stats = new JournalStats();
-            stats.setTotalEntries(0);
+        if (total == 0) {
             stats.setEntriesThisMonth(0);
             stats.setMostCommonMood("No entries yet");
             stats.setMostUsedTags(new ArrayList<>());
             return stats;
         }
 
-        // Подсчет статистики
-        JournalStats stats = new JournalStats();
-        stats.setTotalEntries(entries.size());
-
-        // Записи за текущий месяц
-        LocalDateTime startOfMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-        long entriesThisMonth = entries.stream()
-                .filter(e -> e.getCreatedAt().isAfter(startOfMonth))
-                .count();
-        stats.setEntriesThisMonth(entriesThisMonth);
-
-        // Самое частое настроение
-        Map<String, Long> moodCount = entries.stream()
-                .filter(e -> e.getMood() != null && !e.getMood().trim().isEmpty())
-                .collect(Collectors.groupingBy(JournalEntry::getMood, Collectors.counting()));
-
-        String mostCommonMood = moodCount.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse("Not specified");
-        stats.setMostCommonMood(mostCommonMood);
-
-        // Самые используемые теги
-        Map<String, Long> tagCount = entries.stream()
-                .filter(e -> e.getTags() != null)
-                .flatMap(e -> e.getTags().stream())
-                .collect(Collectors.groupingBy(tag -> tag, Collectors.counting()));
-
-        List<String> mostUsedTags = tagCount.entrySet().stream()
-                .sorted((e1, e2) -> e2.getValue().compareTo(e1.getValue()))
-                .limit(5)
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
-        stats.setMostUsedTags(mostUsedTags);
+        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
+        stats.setEntriesThisMonth(journalMoodDailyRepository.sumEntriesSince(clientId, startOfMonth));
 
+        List<String> topMoods = journalMoodDailyRepository.findTopMoods(clientId, PageRequest.of(0, 1));
+        stats.setMostCommonMood(topMoods.isEmpty() ? "Not specified" : topMoods.get(0));
+
+        stats.setMostUsedTags(journalEntryRepository.findTopTags(clientId, TOP_TAGS_LIMIT));
         return stats;
     }
 
-    @Transactional
-    public void cleanupOldEntries() {
-        LocalDateTime threeYearsAgo = LocalDateTime.now().minusYears(3);
-        List<JournalEntry> oldEntries = journalEntryRepository.findByCreatedAtBefore(threeYearsAgo);
+    @Transactional(readOnly = true)
+    public List<MoodTrendPoint> getMoodTrend(Long clientId, LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_TREND_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new RuntimeException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_TREND_DAYS) {
+            throw new RuntimeException("Date range exceeds " + MAX_TREND_DAYS + " days");
+        }
 
-        if (!oldEntries.isEmpty()) {
-            log.info("Cleaning up {} old journal entries", oldEntries.size());
-            journalEntryRepository.deleteAll(oldEntries);
+        return journalMoodDailyRepository.findSeries(clientId, start, end).stream()
+                .map(day -> {
+                    MoodTrendPoint point = new MoodTrendPoint();
+                    point.setDate(day.getEntryDate());
+                    point.setMood(day.getMood().isEmpty() ? null : day.getMood());
+                    point.setCount(day.getEntryCount());
+                    return point;
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<MoodTrendPoint> getMoodTrendForPsychologist(Long psychologistId, Long clientId,
+                                                            LocalDate from, LocalDate to) {
+        checkClientBelongsTo(psychologistId, clientId);
+        return getMoodTrend(clientId, from, to);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMoodRollup() {
+        if (journalMoodDailyRepository.count() > 0 || journalEntryRepository.count() == 0) {
+            return;
+        }
+        int rows = journalMoodDailyRepository.rebuildFromEntries(null);
+        log.info("Journal mood rollup backfilled: {} rows", rows);
+    }
+
+    public long cleanupOldEntries() {
+        // Храним 3 года; удаление пачками по индексу created_at, с архивом при включенной настройке
+        RetentionRun run = journalRetentionService.purgeExpired();
+        log.info("Old journal entries cleanup completed");
+        return run != null ? run.rowsDeleted() : 0;
+    }
+
+    public void checkClientBelongsTo(Long psychologistId, Long clientId) {
+        Client client = clientRepository.findById(clientId)
+                .orElseThrow(() -> new RuntimeException("Client not found"));
+
+        if (!client.getPsychologist().getId().equals(psychologistId)) {
+            throw new RuntimeException("Client does not belong to this psychologist");
+        }
+    }
+
+    // Сводка меняется в той же транзакции, что и запись; mood = null хранится как ''
+    private void adjustMoodRollup(Long clientId, LocalDateTime createdAt, String mood, int delta) {
+        if (createdAt == null) {
+            return;
+        }
+        LocalDate day = createdAt.toLocalDate();
+        String moodKey = mood != null ? mood : "";
+        journalMoodDailyRepository.adjust(clientId, day, moodKey, delta);
+        if (delta < 0) {
+            journalMoodDailyRepository.deleteIfEmpty(clientId, day, moodKey);
         }
     }
 
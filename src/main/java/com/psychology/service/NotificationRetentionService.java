@@ -0,0 +1,92 @@
+package com.psychology.service;
+
+import com.psychology.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Удаление устаревших уведомлений пачками по индексу created_at.
+ * Каждая пачка коммитится отдельно, поэтому прерванный прогон
+ * просто продолжается следующим запуском.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationRetentionService {
+
+    private final NotificationRepository notificationRepository;
+
+    @Value("${app.retention.notifications.months:6}")
+    private int retentionMonths;
+
+    @Value("${app.retention.notifications.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.retention.notifications.pause-ms:200}")
+    private long pauseMs;
+
+    // 0 — без ограничения; иначе остаток дочищается следующим прогоном
+    @Value("${app.retention.notifications.max-batches-per-run:0}")
+    private int maxBatchesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicReference<RetentionRun> lastRun = new AtomicReference<>();
+
+    public RetentionRun purgeExpired() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Notification retention is already running, skipping");
+            return lastRun.get();
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime cutoff = startedAt.minusMonths(retentionMonths);
+        long start = System.currentTimeMillis();
+        long rowsDeleted = 0;
+        int batches = 0;
+        boolean completed = false;
+
+        try {
+            while (true) {
+                int deleted = notificationRepository.deleteExpiredBatch(cutoff, batchSize);
+                rowsDeleted += deleted;
+                batches++;
+                lastRun.set(new RetentionRun(startedAt, null, cutoff, rowsDeleted, batches,
+                        System.currentTimeMillis() - start, false));
+
+                if (deleted < batchSize) {
+                    completed = true;
+                    break;
+                }
+                if (maxBatchesPerRun > 0 && batches >= maxBatchesPerRun) {
+                    log.info("Notification retention stopped after {} batches, will resume on next run", batches);
+                    break;
+                }
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Notification retention interrupted after {} rows", rowsDeleted);
+        } finally {
+            RetentionRun run = new RetentionRun(startedAt, LocalDateTime.now(), cutoff, rowsDeleted, batches,
+                    System.currentTimeMillis() - start, completed);
+            lastRun.set(run);
+            running.set(false);
+            log.info("Notification retention: deleted {} rows in {} batches ({} ms, {} rows/s)",
+                    run.rowsDeleted(), run.batches(), run.durationMs(), String.format("%.1f", run.rowsPerSecond()));
+        }
+
+        return lastRun.get();
+    }
+
+    public RetentionRun getLastRun() {
+        return lastRun.get();
+    }
+}
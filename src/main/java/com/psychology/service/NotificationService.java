@@ -1,21 +1,26 @@
 package com.psychology.service;
 
+import com.psychology.cache.UnreadCounters;
 import com.psychology.dto.ChatDTO;
 import com.psychology.dto.TypingNotificationDTO;
+import com.psychology.event.NotificationChangedEvent;
 import com.psychology.model.entity.Notification;
 import com.psychology.model.entity.User;
+import com.psychology.outbox.OutboxService;
 import com.psychology.repository.NotificationRepository;
+import com.psychology.websocket.ClusterMessagingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -23,7 +28,11 @@ import java.util.List;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterMessagingService messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NotificationRetentionService notificationRetentionService;
+    private final UnreadCounters unreadCounters;
+    private final OutboxService outboxService;
 
     @Transactional
     public Notification createNotification(User user, Notification.NotificationType type,
@@ -46,6 +55,7 @@ public class NotificationService {
         notification.setCreatedAt(LocalDateTime.now());
 
         Notification saved = notificationRepository.save(notification);
+        eventPublisher.publishEvent(NotificationChangedEvent.unreadChanged(user.getId(), 1));
 
         // Отправляем уведомление через WebSocket
         sendRealTimeNotification(user, saved);
@@ -53,6 +63,28 @@ public class NotificationService {
         return saved;
     }
 
+    /**
+     * Пакетное создание уведомлений с ключом идемпотентности: уже отправленные пропускаются,
+     * по WebSocket уходят только новые. Возвращает число вставленных строк.
+     */
+    @Transactional
+    public int createUniqueNotifications(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+        List<Notification> inserted = notificationRepository.insertIgnoringDuplicates(notifications);
+
+        inserted.stream()
+                .collect(Collectors.groupingBy(n -> n.getUser().getId(), Collectors.counting()))
+                .forEach((userId, count) -> eventPublisher.publishEvent(
+                        NotificationChangedEvent.unreadChanged(userId, count.intValue())));
+        outboxService.enqueueAll(inserted.stream()
+                .map(n -> new OutboxService.Outgoing(notificationDestination(n.getUser().getId()), convertToDTO(n)))
+                .toList());
+
+        return inserted.size();
+    }
+
     public List<Notification> getUserNotifications(User user, int page, int size) {
         Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "createdAt"));
         return notificationRepository.findByUser(user, pageable);
@@ -62,8 +94,10 @@ public class NotificationService {
         return notificationRepository.findByUserAndReadOrderByCreatedAtDesc(user, false);
     }
 
+    // Счетчик для бейджа берется из Redis; SQL — только при отсутствии ключа
     public long getUnreadCount(User user) {
-        return notificationRepository.countByUserAndRead(user, false);
+        return unreadCounters.get(UnreadCounters.Kind.NOTIFICATIONS, user.getId(),
+                () -> notificationRepository.countByUserAndRead(user, false));
     }
 
     @Transactional
@@ -75,13 +109,16 @@ public class NotificationService {
             throw new RuntimeException("Notification does not belong to this user");
         }
 
+        boolean wasUnread = !notification.isRead();
         notification.setRead(true);
         notificationRepository.save(notification);
+        eventPublisher.publishEvent(NotificationChangedEvent.unreadChanged(user.getId(), wasUnread ? -1 : 0));
     }
 
     @Transactional
     public void markAllAsRead(User user) {
         notificationRepository.markAllAsReadByUser(user);
+        eventPublisher.publishEvent(NotificationChangedEvent.allRead(user.getId()));
     }
 
     @Transactional
@@ -94,6 +131,7 @@ public class NotificationService {
         }
 
         notificationRepository.delete(notification);
+        eventPublisher.publishEvent(NotificationChangedEvent.unreadChanged(user.getId(), notification.isRead() ? 0 : -1));
     }
     public void sendNewMessageNotification(ChatDTO.MessageResponse message) {
         // Создаем уведомление в базе данных
@@ -110,8 +148,8 @@ public class NotificationService {
         notification.setContent(message.getContent());
         notification.setSentAt(message.getSentAt());
 
-        messagingTemplate.convertAndSend(destination, notification);
-        log.info("Sent new message notification to user {}: {}", message.getReceiverId(), message.getContent());
+        outboxService.enqueue(destination, notification);
+        log.info("Queued new message notification to user {}: {}", message.getReceiverId(), message.getContent());
     }
 
     public void sendTypingNotification(Long senderId, Long receiverId, boolean isTyping) {
@@ -121,35 +159,40 @@ public class NotificationService {
         notification.setSenderId(senderId);
         notification.setTyping(isTyping);
 
+        // Набор текста — эфемерное событие без записи в БД, отправляем напрямую мимо outbox
         messagingTemplate.convertAndSend(destination, notification);
         log.debug("Sent typing notification from {} to {}: {}", senderId, receiverId, isTyping);
     }
 
+    // Одно подтверждение на пачку прочитанных сообщений — отправителю этих сообщений
+    public void sendReadReceipt(Long senderId, ChatDTO.ReadReceipt receipt) {
+        String destination = "/user/" + senderId + "/queue/read-receipts";
+        outboxService.enqueue(destination, receipt);
+        log.debug("Queued read receipt to user {}: {} messages up to {}",
+                senderId, receipt.getReadCount(), receipt.getUpToMessageId());
+    }
+
     public void sendMessageReadNotification(Long messageId, Long readerId) {
         String destination = "/queue/messages/read/" + messageId;
-        messagingTemplate.convertAndSend(destination, readerId);
-        log.debug("Sent message read notification for message {} by user {}", messageId, readerId);
+        outboxService.enqueue(destination, readerId);
+        log.debug("Queued message read notification for message {} by user {}", messageId, readerId);
     }
 
-    @Transactional
-    public void cleanupOldNotifications() {
-        LocalDateTime expirationDate = LocalDateTime.now().minusMonths(6); // Храним 6 месяцев
-        List<Notification> allNotifications = notificationRepository.findAll();
-        List<User> users = allNotifications.stream()
-                .map(Notification::getUser)
-                .distinct()
-                .toList();
-
-        for (User user : users) {
-            notificationRepository.deleteOldNotifications(user, expirationDate);
-        }
+    public long cleanupOldNotifications() {
+        // Храним 6 месяцев; удаление пачками без загрузки сущностей
+        RetentionRun run = notificationRetentionService.purgeExpired();
         log.info("Old notifications cleanup completed");
+        return run != null ? run.rowsDeleted() : 0;
     }
 
+    // Доставка через outbox: уйдет после коммита, при откате не уйдет вовсе
     private void sendRealTimeNotification(User user, Notification notification) {
-        String destination = "/user/" + user.getId() + "/queue/notifications";
-        messagingTemplate.convertAndSend(destination, convertToDTO(notification));
-        log.debug("Real-time notification sent to user {}: {}", user.getId(), notification.getTitle());
+        outboxService.enqueue(notificationDestination(user.getId()), convertToDTO(notification));
+        log.debug("Real-time notification queued for user {}: {}", user.getId(), notification.getTitle());
+    }
+
+    private static String notificationDestination(Long userId) {
+        return "/user/" + userId + "/queue/notifications";
     }
 
     public NotificationDTO convertToDTO(Notification notification) {
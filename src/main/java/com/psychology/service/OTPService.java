@@ -4,8 +4,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -18,113 +20,105 @@ public class OTPService {
     private static final String OTP_ATTEMPTS_PREFIX = "otp_attempts:";
     private static final String BLOCKED_PREFIX = "blocked:";
     private static final String SEND_TIMEOUT_PREFIX = "otp_timeout:";
+    private static final String ADMIN_PREFIX = "otp_admin:";
+    private static final String ADMIN_RECENT_KEY = "otp_admin_recent";
 
     private static final int OTP_LENGTH = 6;
     private static final int OTP_TTL_MINUTES = 5;
     private static final int MAX_ATTEMPTS = 3;
     private static final int BLOCK_DURATION_MINUTES = 60;
     private static final int SEND_TIMEOUT_SECONDS = 60; // 1 minute
+    private static final int ATTEMPTS_TTL_HOURS = 1;
+    private static final int ADMIN_RECENT_SIZE = 50; // храним последние 50 для админки
+
+    private static final long GENERATE_OK = 1;
+    private static final long GENERATE_BLOCKED = -1;
+    private static final long GENERATE_TOO_SOON = -2;
+
+    private static final long VERIFY_OK = 1;
+    private static final long VERIFY_MISMATCH = 0;
+    private static final long VERIFY_BLOCKED = -1;
+    private static final long VERIFY_TOO_MANY_ATTEMPTS = -2;
+
+    // KEYS: blocked, timeout, otp, admin, recent. ARGV: otp, otp_ttl_s, timeout_s, payload, recent_size.
+    // Таймаут занимается через SET NX, поэтому два параллельных запроса не выпустят два кода
+    private static final DefaultRedisScript<Long> GENERATE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 1 then return " + GENERATE_BLOCKED + " end " +
+            "if not redis.call('set', KEYS[2], '1', 'EX', ARGV[3], 'NX') then return " + GENERATE_TOO_SOON + " end " +
+            "redis.call('set', KEYS[3], ARGV[1], 'EX', ARGV[2]) " +
+            "redis.call('set', KEYS[4], ARGV[1], 'EX', ARGV[2]) " +
+            "redis.call('lpush', KEYS[5], ARGV[4]) " +
+            "redis.call('ltrim', KEYS[5], 0, tonumber(ARGV[5]) - 1) " +
+            "return " + GENERATE_OK, Long.class);
+
+    // KEYS: otp, attempts, blocked. ARGV: otp, max_attempts, attempts_ttl_s, block_s.
+    // Код одноразовый: при совпадении удаляется вместе со счетчиком, при блокировке — тоже
+    private static final DefaultRedisScript<Long> VERIFY_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[3]) == 1 then return " + VERIFY_BLOCKED + " end " +
+            "local stored = redis.call('get', KEYS[1]) " +
+            "if not stored then return " + VERIFY_MISMATCH + " end " +
+            "if stored == ARGV[1] then " +
+            "  redis.call('del', KEYS[1], KEYS[2]) " +
+            "  return " + VERIFY_OK + " " +
+            "end " +
+            "local attempts = redis.call('incr', KEYS[2]) " +
+            "if attempts == 1 then redis.call('expire', KEYS[2], ARGV[3]) end " +
+            "if attempts >= tonumber(ARGV[2]) then " +
+            "  redis.call('set', KEYS[3], 'blocked', 'EX', ARGV[4]) " +
+            "  redis.call('del', KEYS[1]) " +
+            "  return " + VERIFY_TOO_MANY_ATTEMPTS + " " +
+            "end " +
+            "return " + VERIFY_MISMATCH, Long.class);
 
     public String generateOTP(String phone) {
-        // Проверка блокировки
-        if (isBlocked(phone)) {
-            throw new RuntimeException("Phone is temporarily blocked");
-        }
-
-        // Проверка таймаута отправки
-        String timeoutKey = SEND_TIMEOUT_PREFIX + phone;
-        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(timeoutKey))) {
-            throw new RuntimeException("Please wait before requesting new OTP");
-        }
-
         // Генерация OTP
         String otp = RandomStringUtils.randomNumeric(OTP_LENGTH);
-        String key = OTP_PREFIX + phone;
+        String payload = phone + "|" + otp + "|" + System.currentTimeMillis();
 
-        // Сохранение в Redis
-        stringRedisTemplate.opsForValue().set(
-                key,
-                otp,
-                OTP_TTL_MINUTES,
-                TimeUnit.MINUTES
-        );
-
-        // Сохраняем OTP для админки (последний по номеру)
-        String adminKey = "otp_admin:" + phone;
-        stringRedisTemplate.opsForValue().set(
-                adminKey,
+        // Проверка блокировки и таймаута, сохранение кода, копия для админки и журнал — один скрипт
+        Long result = stringRedisTemplate.execute(GENERATE_SCRIPT,
+                List.of(BLOCKED_PREFIX + phone, SEND_TIMEOUT_PREFIX + phone, OTP_PREFIX + phone,
+                        ADMIN_PREFIX + phone, ADMIN_RECENT_KEY),
                 otp,
-                OTP_TTL_MINUTES,
-                TimeUnit.MINUTES
-        );
-
-        // Установка таймаута на повторную отправку
-        stringRedisTemplate.opsForValue().set(
-                timeoutKey,
-                "1",
-                SEND_TIMEOUT_SECONDS,
-                TimeUnit.SECONDS
-        );
+                String.valueOf(TimeUnit.MINUTES.toSeconds(OTP_TTL_MINUTES)),
+                String.valueOf(SEND_TIMEOUT_SECONDS),
+                payload,
+                String.valueOf(ADMIN_RECENT_SIZE));
+
+        if (result == null) {
+            throw new RuntimeException("Failed to generate OTP");
+        }
+        if (result == GENERATE_BLOCKED) {
+            throw new RuntimeException("Phone is temporarily blocked");
+        }
+        if (result == GENERATE_TOO_SOON) {
+            throw new RuntimeException("Please wait before requesting new OTP");
+        }
 
         // Логирование OTP (в продакшене будет отправка SMS)
         log.info("OTP for {}: {}", phone, otp);
 
-        // Добавляем в список последних OTP для админки
-        String recentKey = "otp_admin_recent";
-        String payload = phone + "|" + otp + "|" + System.currentTimeMillis();
-        stringRedisTemplate.opsForList().leftPush(recentKey, payload);
-        stringRedisTemplate.opsForList().trim(recentKey, 0, 49); // храним последние 50
-
         return otp;
     }
 
     public boolean verifyOTP(String phone, String otp) {
-        String key = OTP_PREFIX + phone;
-        String storedOtp = stringRedisTemplate.opsForValue().get(key);
-
-        if (storedOtp == null) {
+        // Сравнение, удаление кода, счетчик попыток и блокировка — атомарно, один round trip
+        Long result = stringRedisTemplate.execute(VERIFY_SCRIPT,
+                List.of(OTP_PREFIX + phone, OTP_ATTEMPTS_PREFIX + phone, BLOCKED_PREFIX + phone),
+                otp != null ? otp : "",
+                String.valueOf(MAX_ATTEMPTS),
+                String.valueOf(TimeUnit.HOURS.toSeconds(ATTEMPTS_TTL_HOURS)),
+                String.valueOf(TimeUnit.MINUTES.toSeconds(BLOCK_DURATION_MINUTES)));
+
+        if (result == null) {
             return false;
         }
-
-        boolean verified = storedOtp.equals(otp);
-
-        if (verified) {
-            // Удаляем OTP после успешной проверки
-            stringRedisTemplate.delete(key);
-            resetAttempts(phone);
-        } else {
-            incrementAttempts(phone);
-        }
-
-        return verified;
-    }
-
-    private void incrementAttempts(String phone) {
-        String key = OTP_ATTEMPTS_PREFIX + phone;
-        Long attempts = stringRedisTemplate.opsForValue().increment(key);
-
-        if (attempts == 1) {
-            stringRedisTemplate.expire(key, 1, TimeUnit.HOURS);
+        if (result == VERIFY_BLOCKED) {
+            throw new RuntimeException("Phone is temporarily blocked");
         }
-
-        if (attempts >= MAX_ATTEMPTS) {
-            blockPhone(phone);
+        if (result == VERIFY_TOO_MANY_ATTEMPTS) {
             throw new RuntimeException("Too many OTP attempts");
         }
-    }
-
-    private void resetAttempts(String phone) {
-        String key = OTP_ATTEMPTS_PREFIX + phone;
-        stringRedisTemplate.delete(key);
-    }
-
-    private boolean isBlocked(String phone) {
-        String key = BLOCKED_PREFIX + phone;
-        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(key));
-    }
-
-    private void blockPhone(String phone) {
-        String key = BLOCKED_PREFIX + phone;
-        stringRedisTemplate.opsForValue().set(key, "blocked", BLOCK_DURATION_MINUTES, TimeUnit.MINUTES);
+        return result == VERIFY_OK;
     }
 }
@@ -2,11 +2,13 @@ package com.psychology.service;
 
 import com.psychology.controller.ProfileController;
 import com.psychology.dto.PsychologistDTO;
+import com.psychology.event.UserAccountChangedEvent;
 import com.psychology.model.entity.Psychologist;
 import com.psychology.model.entity.Client;
 import com.psychology.repository.PsychologistRepository;
 import com.psychology.repository.ClientRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +18,7 @@ public class ProfileService {
 
     private final PsychologistRepository psychologistRepository;
     private final ClientRepository clientRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     public Client getClientProfile(Client client) {
@@ -67,7 +70,9 @@ public class ProfileService {
             existingPsychologist.setDescription(request.getDescription());
         }
 
-        return psychologistRepository.save(existingPsychologist);
+        Psychologist saved = psychologistRepository.save(existingPsychologist);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(saved.getId(), saved.getPhone()));
+        return saved;
     }
 
     @Transactional
@@ -86,6 +91,8 @@ public class ProfileService {
             existingClient.setAge(request.getAge());
         }
 
-        return clientRepository.save(existingClient);
+        Client saved = clientRepository.save(existingClient);
+        eventPublisher.publishEvent(new UserAccountChangedEvent(saved.getId(), saved.getPhone()));
+        return saved;
     }
 }
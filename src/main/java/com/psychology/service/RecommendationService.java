@@ -3,20 +3,25 @@ package com.psychology.service;
 import com.psychology.controller.RecommendationController.RecommendationRequest;
 import com.psychology.controller.RecommendationController.RecommendationUpdateRequest;
 import com.psychology.controller.RecommendationController.RecommendationStats;
+import com.psychology.event.RecommendationChangedEvent;
 import com.psychology.model.entity.Recommendation;
 import com.psychology.model.entity.Psychologist;
 import com.psychology.model.entity.Client;
+import com.psychology.repository.RecommendationCountsView;
 import com.psychology.repository.RecommendationRepository;
+import com.psychology.repository.RecommendationSpecifications;
 import com.psychology.repository.ClientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +31,10 @@ public class RecommendationService {
     private final RecommendationRepository recommendationRepository;
     private final ClientRepository clientRepository;
     private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
 
     @Transactional
     public Recommendation createRecommendation(Psychologist psychologist, RecommendationRequest request) {
@@ -49,6 +58,7 @@ public class RecommendationService {
         recommendation.setCreatedAt(LocalDateTime.now());
 
         Recommendation saved = recommendationRepository.save(recommendation);
+        publishChanged(saved);
 
         // Создаем уведомление для клиента
         notificationService.createNotification(
@@ -93,7 +103,9 @@ public class RecommendationService {
             recommendation.setCategories(request.getCategories());
         }
 
-        return recommendationRepository.save(recommendation);
+        Recommendation saved = recommendationRepository.save(recommendation);
+        publishChanged(saved);
+        return saved;
     }
 
     @Transactional
@@ -108,7 +120,9 @@ public class RecommendationService {
         recommendation.setCompleted(true);
         recommendation.setCompletedAt(LocalDateTime.now());
 
-        return recommendationRepository.save(recommendation);
+        Recommendation saved = recommendationRepository.save(recommendation);
+        publishChanged(saved);
+        return saved;
     }
 
     @Transactional
@@ -124,7 +138,9 @@ public class RecommendationService {
         recommendation.setCompletedAt(LocalDateTime.now());
         recommendation.setCompletedByClient(true);
 
-        return recommendationRepository.save(recommendation);
+        Recommendation saved = recommendationRepository.save(recommendation);
+        publishChanged(saved);
+        return saved;
     }
 
     @Transactional
@@ -137,11 +153,13 @@ public class RecommendationService {
         }
 
         recommendationRepository.delete(recommendation);
+        publishChanged(recommendation);
     }
 
-    public List<Recommendation> getClientRecommendations(Psychologist psychologist, Long clientId,
+    public Page<Recommendation> getClientRecommendations(Psychologist psychologist, Long clientId,
                                                          Boolean completed, Boolean overdue,
-                                                         LocalDateTime from, LocalDateTime to) {
+                                                         LocalDateTime from, LocalDateTime to,
+                                                         Integer page, Integer size) {
         Client client = clientRepository.findById(clientId)
                 .orElseThrow(() -> new RuntimeException("Client not found"));
 
@@ -149,101 +167,62 @@ public class RecommendationService {
             throw new RuntimeException("Client does not belong to this psychologist");
         }
 
-        List<Recommendation> recommendations = recommendationRepository.findByClientId(clientId);
-
-        return filterRecommendations(recommendations, completed, overdue, from, to);
+        return findClientRecommendations(clientId, completed, overdue, from, to, page, size);
     }
 
-    public List<Recommendation> getMyRecommendations(Client client, Boolean completed,
+    public Page<Recommendation> getMyRecommendations(Client client, Boolean completed,
                                                      Boolean overdue, LocalDateTime from,
-                                                     LocalDateTime to) {
-        List<Recommendation> recommendations = recommendationRepository.findByClientId(client.getId());
-        return filterRecommendations(recommendations, completed, overdue, from, to);
+                                                     LocalDateTime to, Integer page, Integer size) {
+        return findClientRecommendations(client.getId(), completed, overdue, from, to, page, size);
     }
 
-    public List<Recommendation> getOverdueRecommendations(Psychologist psychologist) {
-        List<Client> clients = clientRepository.findByPsychologistId(psychologist.getId());
-        List<Recommendation> allRecommendations = new ArrayList<>();
-
-        for (Client client : clients) {
-            List<Recommendation> clientRecs = recommendationRepository.findByClientId(client.getId());
-            allRecommendations.addAll(clientRecs);
-        }
-
-        LocalDateTime now = LocalDateTime.now();
-        return allRecommendations.stream()
-                .filter(r -> !r.isCompleted() && r.getDeadline() != null && r.getDeadline().isBefore(now))
-                .sorted((r1, r2) -> r1.getDeadline().compareTo(r2.getDeadline()))
-                .collect(Collectors.toList());
+    // Клиенты закреплены за психологом навсегда, поэтому фильтруем по recommendations.psychologist_id
+    public Page<Recommendation> getOverdueRecommendations(Psychologist psychologist, Integer page, Integer size) {
+        return recommendationRepository.findOverdueByPsychologistId(
+                psychologist.getId(), LocalDateTime.now(), pageRequest(page, size));
     }
 
     public RecommendationStats getRecommendationStats(Psychologist psychologist) {
-        List<Client> clients = clientRepository.findByPsychologistId(psychologist.getId());
-        List<Recommendation> allRecommendations = new ArrayList<>();
-
-        for (Client client : clients) {
-            allRecommendations.addAll(recommendationRepository.findByClientId(client.getId()));
-        }
+        RecommendationCountsView counts = recommendationRepository.countStatsByPsychologistId(
+                psychologist.getId(), LocalDateTime.now());
+        long total = counts.getTotal() != null ? counts.getTotal() : 0;
+        long completed = counts.getCompleted() != null ? counts.getCompleted() : 0;
 
         RecommendationStats stats = new RecommendationStats();
-        stats.setTotalRecommendations(allRecommendations.size());
-
-        long completed = allRecommendations.stream().filter(Recommendation::isCompleted).count();
+        stats.setTotalRecommendations(total);
         stats.setCompletedRecommendations(completed);
+        stats.setPendingRecommendations(total - completed);
+        stats.setOverdueRecommendations(counts.getOverdue() != null ? counts.getOverdue() : 0);
+        stats.setCompletionRate(total == 0 ? 0 : (double) completed / total * 100);
+        return stats;
+    }
 
-        long pending = allRecommendations.size() - completed;
-        stats.setPendingRecommendations(pending);
-
-        LocalDateTime now = LocalDateTime.now();
-        long overdue = allRecommendations.stream()
-                .filter(r -> !r.isCompleted() && r.getDeadline() != null && r.getDeadline().isBefore(now))
-                .count();
-        stats.setOverdueRecommendations(overdue);
-
-        stats.setCompletionRate(allRecommendations.isEmpty() ? 0 : (double) completed / allRecommendations.size() * 100);
+    private void publishChanged(Recommendation recommendation) {
+        eventPublisher.publishEvent(new RecommendationChangedEvent(recommendation.getId(),
+                recommendation.getPsychologist().getId(), recommendation.getClient().getId()));
+    }
 
-        return stats;
+    // Фильтры, порядок и пагинация выполняются в БД по индексу (client_id, completed, deadline)
+    private Page<Recommendation> findClientRecommendations(Long clientId, Boolean completed, Boolean overdue,
+                                                           LocalDateTime from, LocalDateTime to,
+                                                           Integer page, Integer size) {
+        return recommendationRepository.findAll(
+                RecommendationSpecifications.clientListing(clientId, completed, overdue, from, to, LocalDateTime.now()),
+                pageRequest(page, size));
     }
 
-    private List<Recommendation> filterRecommendations(List<Recommendation> recommendations,
-                                                       Boolean completed, Boolean overdue,
-                                                       LocalDateTime from, LocalDateTime to) {
-        return recommendations.stream()
-                .filter(r -> completed == null || r.isCompleted() == completed)
-                .filter(r -> {
-                    if (overdue == null) return true;
-                    LocalDateTime now = LocalDateTime.now();
-                    if (overdue) {
-                        return !r.isCompleted() && r.getDeadline() != null && r.getDeadline().isBefore(now);
-                    } else {
-                        return r.isCompleted() || r.getDeadline() == null || !r.getDeadline().isBefore(now);
-                    }
-                })
-                .filter(r -> from == null || (r.getCreatedAt() != null && !r.getCreatedAt().isBefore(from)))
-                .filter(r -> to == null || (r.getCreatedAt() != null && !r.getCreatedAt().isAfter(to)))
-                .sorted((r1, r2) -> {
-                    // Сначала просроченные, затем по приоритету, затем по дедлайну
-                    LocalDateTime now = LocalDateTime.now();
-                    boolean r1Overdue = !r1.isCompleted() && r1.getDeadline() != null && r1.getDeadline().isBefore(now);
-                    boolean r2Overdue = !r2.isCompleted() && r2.getDeadline() != null && r2.getDeadline().isBefore(now);
-
-                    if (r1Overdue && !r2Overdue) return -1;
-                    if (!r1Overdue && r2Overdue) return 1;
-
-                    int priorityCompare = Integer.compare(r2.getPriority(), r1.getPriority());
-                    if (priorityCompare != 0) return priorityCompare;
-
-                    if (r1.getDeadline() == null && r2.getDeadline() == null) return 0;
-                    if (r1.getDeadline() == null) return 1;
-                    if (r2.getDeadline() == null) return -1;
-
-                    return r1.getDeadline().compareTo(r2.getDeadline());
-                })
-                .collect(Collectors.toList());
+    // Без page и size — весь список, как до появления пагинации (фронтенд запрашивает без параметров)
+    private static Pageable pageRequest(Integer page, Integer size) {
+        if (page == null && size == null) {
+            return Pageable.unpaged();
+        }
+        int pageNumber = page == null ? 0 : Math.max(page, 0);
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return PageRequest.of(pageNumber, pageSize);
     }
 
     @Transactional
-    public void checkAndNotifyOverdue() {
+    public int checkAndNotifyOverdue() {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime yesterday = now.minusDays(1);
 
@@ -258,5 +237,6 @@ public class RecommendationService {
                     String.format("Рекомендация '%s' просрочена", recommendation.getTitle())
             );
         }
+        return overdueRecommendations.size();
     }
 }
\ No newline at end of file
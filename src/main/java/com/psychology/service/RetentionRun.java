@@ -0,0 +1,19 @@
+package com.psychology.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Итог (или текущий прогресс) одного прогона очистки устаревших данных.
+ */
+public record RetentionRun(LocalDateTime startedAt,
+                           LocalDateTime finishedAt,
+                           LocalDateTime cutoff,
+                           long rowsDeleted,
+                           int batches,
+                           long durationMs,
+                           boolean completed) {
+
+    public double rowsPerSecond() {
+        return durationMs > 0 ? rowsDeleted * 1000.0 / durationMs : rowsDeleted;
+    }
+}
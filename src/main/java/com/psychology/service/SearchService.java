@@ -0,0 +1,87 @@
+package com.psychology.service;
+
+import com.psychology.cache.PrincipalCache;
+import com.psychology.model.entity.Client;
+import com.psychology.repository.ClientRepository;
+import com.psychology.repository.FullTextHit;
+import com.psychology.repository.FullTextSearchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Полнотекстовый поиск по дневнику и переписке с теми же правилами доступа, что и в
+ * JournalService / ChatService.canSeeConversation: психолог видит записи и переписку своих клиентов,
+ * клиент — свой дневник и переписку со своим психологом.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final FullTextSearchRepository fullTextSearchRepository;
+    private final ClientRepository clientRepository;
+    private final JournalService journalService;
+
+    @Transactional(readOnly = true)
+    public Page<FullTextHit> search(PrincipalCache.PrincipalSnapshot user, String text, Long clientId, Set<FullTextHit.Source> sources,
+                                    Integer page, Integer size) {
+        if (text == null || text.isBlank()) {
+            throw new RuntimeException("Search query cannot be empty");
+        }
+        if (text.length() > MAX_QUERY_LENGTH) {
+            throw new RuntimeException("Search query exceeds " + MAX_QUERY_LENGTH + " characters");
+        }
+
+        FullTextSearchRepository.Scope scope = scopeFor(user, clientId);
+        Set<FullTextHit.Source> effectiveSources = sources == null || sources.isEmpty()
+                ? EnumSet.allOf(FullTextHit.Source.class) : sources;
+        int pageNumber = page != null ? Math.max(page, 0) : 0;
+        int pageSize = size != null ? Math.max(1, Math.min(size, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+
+        return fullTextSearchRepository.search(text.trim(), scope, effectiveSources,
+                PageRequest.of(pageNumber, pageSize));
+    }
+
+    // Роль, id и психолог клиента берутся из снимка principal — сущность пользователя не загружается
+    private FullTextSearchRepository.Scope scopeFor(PrincipalCache.PrincipalSnapshot user, Long clientId) {
+        if (user == null) {
+            throw new RuntimeException("Search is available to psychologists and clients only");
+        }
+
+        switch (user.role()) {
+            case ROLE_PSYCHOLOGIST -> {
+                Set<Long> clientIds;
+                if (clientId != null) {
+                    journalService.checkClientBelongsTo(user.id(), clientId);
+                    clientIds = Set.of(clientId);
+                } else {
+                    clientIds = clientRepository.findByPsychologistId(user.id()).stream()
+                            .map(Client::getId)
+                            .collect(Collectors.toSet());
+                }
+                // Психолог ищет и по дневникам клиентов, и по переписке с ними
+                return new FullTextSearchRepository.Scope(clientIds, user.id(), clientIds);
+            }
+            case ROLE_CLIENT -> {
+                if (clientId != null && !clientId.equals(user.id())) {
+                    throw new RuntimeException("Access denied");
+                }
+                Set<Long> peers = user.psychologistId() != null ? Set.of(user.psychologistId()) : Set.of();
+                return new FullTextSearchRepository.Scope(Set.of(user.id()), user.id(), peers);
+            }
+            default -> throw new RuntimeException("Search is available to psychologists and clients only");
+        }
+    }
+}
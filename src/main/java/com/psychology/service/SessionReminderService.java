@@ -0,0 +1,191 @@
+package com.psychology.service;
+
+import com.psychology.event.SessionChangedEvent;
+import com.psychology.model.entity.Notification;
+import com.psychology.model.entity.Session;
+import com.psychology.model.entity.User;
+import com.psychology.repository.SessionRepository;
+import com.psychology.scheduler.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Напоминания о сеансах за 24 часа и за 1 час.
+ * Время срабатывания раскладывается по колесу таймеров при создании/изменении сеанса,
+ * а периодическая сверка (ScheduledTasks) догружает сеансы ближайшего горизонта после рестарта.
+ * Сработавшие напоминания вставляются пачкой с ключом (сеанс, тип, пользователь),
+ * поэтому повторная отправка одного и того же напоминания невозможна.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionReminderService {
+
+    private static final Set<Session.SessionStatus> FINISHED_STATUSES =
+            EnumSet.of(Session.SessionStatus.CANCELLED, Session.SessionStatus.COMPLETED);
+
+    private static final List<ReminderType> REMINDER_TYPES = List.of(
+            new ReminderType(Notification.NotificationType.SESSION_REMINDER_24H, Duration.ofHours(24)),
+            new ReminderType(Notification.NotificationType.SESSION_REMINDER_1H, Duration.ofHours(1)));
+
+    private final SessionRepository sessionRepository;
+    private final NotificationService notificationService;
+
+    @Value("${app.reminders.tick-seconds:30}")
+    private long tickSeconds;
+
+    @Value("${app.reminders.wheel-size:512}")
+    private int wheelSize;
+
+    // Насколько вперед держим напоминания в памяти; дальние подхватит сверка
+    @Value("${app.reminders.horizon-hours:25}")
+    private long horizonHours;
+
+    // Опоздавшее напоминание (рестарт, сбой БД) еще отправляем в пределах этого окна
+    @Value("${app.reminders.grace-minutes:15}")
+    private long graceMinutes;
+
+    private TimingWheel<DueReminder> wheel;
+
+    @PostConstruct
+    void init() {
+        wheel = new TimingWheel<>(TimeUnit.SECONDS.toMillis(tickSeconds), wheelSize, System.currentTimeMillis());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        schedule(event.sessionId(), event.scheduledAt(), event.status(), LocalDateTime.now());
+    }
+
+    /**
+     * Сверка с БД: раскладывает по колесу напоминания сеансов ближайшего горизонта
+     * (для шарда client_id mod shards). Возвращает число запланированных напоминаний.
+     */
+    public long reconcile(LocalDateTime now, int shards, int shard) {
+        List<Session> sessions = sessionRepository.findByScheduledAtBetweenInShard(
+                now, now.plusHours(horizonHours), Math.max(shards, 1), shard);
+        long scheduled = 0;
+        for (Session session : sessions) {
+            scheduled += schedule(session.getId(), session.getScheduledAt(), session.getStatus(), now);
+        }
+        log.debug("Reminder reconcile (shard {}/{}): {} sessions, {} reminders pending",
+                shard, shards, sessions.size(), wheel.size());
+        return scheduled;
+    }
+
+    @Scheduled(fixedDelayString = "${app.reminders.tick-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void tick() {
+        List<DueReminder> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            int sent = flush(due);
+            log.info("Session reminders: {} due, {} notifications sent", due.size(), sent);
+        } catch (RuntimeException e) {
+            // Повторим на следующем тике; дубликаты отсечет dedup_key
+            log.error("Failed to send {} session reminders, will retry: {}", due.size(), e.getMessage());
+            long retryAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(tickSeconds);
+            due.forEach(r -> wheel.schedule(r.key(), retryAt, r));
+        }
+    }
+
+    private int schedule(Long sessionId, LocalDateTime scheduledAt, Session.SessionStatus status, LocalDateTime now) {
+        int scheduled = 0;
+        for (ReminderType reminderType : REMINDER_TYPES) {
+            String key = sessionId + ":" + reminderType.type();
+            if (scheduledAt == null || FINISHED_STATUSES.contains(status) || !scheduledAt.isAfter(now)) {
+                wheel.cancel(key);
+                continue;
+            }
+
+            LocalDateTime dueAt = scheduledAt.minus(reminderType.before());
+            if (dueAt.isBefore(now.minusMinutes(graceMinutes)) || dueAt.isAfter(now.plusHours(horizonHours))) {
+                wheel.cancel(key);
+                continue;
+            }
+
+            wheel.schedule(key, toEpochMs(dueAt), new DueReminder(sessionId, reminderType.type(), scheduledAt));
+            scheduled++;
+        }
+        return scheduled;
+    }
+
+    private int flush(List<DueReminder> due) {
+        Map<Long, Session> sessions = sessionRepository.findWithParticipantsByIdIn(
+                        due.stream().map(DueReminder::sessionId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Session::getId, Function.identity()));
+
+        List<Notification> batch = new ArrayList<>(due.size() * 2);
+        for (DueReminder reminder : due) {
+            Session session = sessions.get(reminder.sessionId());
+            // Сеанс удален, отменен или перенесен после постановки в колесо
+            if (session == null || FINISHED_STATUSES.contains(session.getStatus())
+                    || !session.getScheduledAt().equals(reminder.scheduledAt())) {
+                continue;
+            }
+
+            if (reminder.type() == Notification.NotificationType.SESSION_REMINDER_24H) {
+                batch.add(reminder(session.getClient(), reminder, "Напоминание о сеансе",
+                        String.format("У вас запланирован сеанс через 24 часа: %s",
+                                session.getScheduledAt().toLocalDate())));
+                batch.add(reminder(session.getPsychologist(), reminder, "Напоминание о сеансе",
+                        String.format("У вас запланирован сеанс с %s через 24 часа",
+                                session.getClient().getFullName())));
+            } else {
+                batch.add(reminder(session.getClient(), reminder, "Скоро начнется сеанс",
+                        "До начала сеанса остался 1 час"));
+                batch.add(reminder(session.getPsychologist(), reminder, "Скоро начнется сеанс",
+                        String.format("До начала сеанса с %s остался 1 час",
+                                session.getClient().getFullName())));
+            }
+        }
+
+        return notificationService.createUniqueNotifications(batch);
+    }
+
+    private Notification reminder(User user, DueReminder reminder, String title, String message) {
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setType(reminder.type());
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setRead(false);
+        notification.setRelatedEntityId(reminder.sessionId());
+        notification.setRelatedEntityType("SESSION");
+        notification.setCreatedAt(LocalDateTime.now());
+        notification.setDedupKey("SESSION:" + reminder.sessionId() + ":" + reminder.type() + ":" + user.getId());
+        return notification;
+    }
+
+    private static long toEpochMs(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record ReminderType(Notification.NotificationType type, Duration before) {
+    }
+
+    private record DueReminder(Long sessionId, Notification.NotificationType type, LocalDateTime scheduledAt) {
+        String key() {
+            return sessionId + ":" + type;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.psychology.service;
 
+import com.psychology.event.SessionChangedEvent;
 import com.psychology.model.entity.Session;
 import com.psychology.model.entity.Psychologist;
 import com.psychology.model.entity.Client;
@@ -7,6 +8,7 @@ import com.psychology.repository.SessionRepository;
 import com.psychology.repository.ClientRepository;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +21,7 @@ public class SessionService {
 
     private final SessionRepository sessionRepository;
     private final ClientRepository clientRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public Session createSession(Psychologist psychologist, SessionRequest request) {
@@ -43,7 +46,9 @@ public class SessionService {
         session.setDescription(request.getDescription());
         session.setStatus(Session.SessionStatus.SCHEDULED);
 
-        return sessionRepository.save(session);
+        Session saved = sessionRepository.save(session);
+        publishChanged(saved);
+        return saved;
     }
 
     @Transactional
@@ -73,7 +78,9 @@ public class SessionService {
             session.setStatus(request.getStatus());
         }
 
-        return sessionRepository.save(session);
+        Session saved = sessionRepository.save(session);
+        publishChanged(saved);
+        return saved;
     }
 
     public List<Session> getPsychologistSessions(Psychologist psychologist, LocalDateTime from, LocalDateTime to) {
@@ -126,7 +133,15 @@ public class SessionService {
             throw new RuntimeException("Invalid user type");
         }
 
-        return sessionRepository.save(session);
+        Session saved = sessionRepository.save(session);
+        publishChanged(saved);
+        return saved;
+    }
+
+    private void publishChanged(Session session) {
+        eventPublisher.publishEvent(new SessionChangedEvent(
+                session.getId(), session.getPsychologist().getId(), session.getClient().getId(),
+                session.getScheduledAt(), session.getStatus()));
     }
 
     @Data
@@ -0,0 +1,186 @@
+package com.psychology.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.psychology.model.entity.User;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.AbstractSubProtocolEvent;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отправка STOMP-сообщений с учетом нескольких инстансов.
+ * В кластерном режиме сообщение публикуется в Redis, и каждый узел доставляет его
+ * через локальный брокер только если у него есть WebSocket-сессия адресата.
+ * Без кластера работает как обычный SimpMessagingTemplate.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClusterMessagingService {
+
+    private static final String CHANNEL = "ws:fanout";
+    private static final String USER_PREFIX = "/user/";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.websocket.cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // userId -> id WebSocket-сессий, открытых на этом узле
+    private final Map<Long, Set<String>> localSessions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribe() {
+        if (!clusterEnabled) {
+            return;
+        }
+        listenerContainer.addMessageListener((message, pattern) ->
+                onClusterMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL));
+        log.info("WebSocket cluster fan-out enabled, node {}", nodeId);
+    }
+
+    public void convertAndSend(String destination, Object payload) {
+        if (!clusterEnabled) {
+            messagingTemplate.convertAndSend(destination, payload);
+            return;
+        }
+
+        Long targetUserId = extractUserId(destination);
+        // Адресат подключен к этому узлу — доставляем сразу, без сетевого круга
+        if (targetUserId == null || localSessions.containsKey(targetUserId)) {
+            messagingTemplate.convertAndSend(destination, payload);
+        }
+
+        try {
+            String body = objectMapper.writeValueAsString(payload);
+            String envelope = objectMapper.writeValueAsString(new Envelope(nodeId, destination, body));
+            stringRedisTemplate.convertAndSend(CHANNEL, envelope);
+        } catch (Exception e) {
+            log.error("Failed to publish WebSocket message to cluster: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Отправка уже сериализованного JSON (из outbox). Ошибку публикации в кластер пробрасывает,
+     * чтобы вызывающий мог повторить доставку.
+     */
+    public void sendJson(String destination, String json) {
+        Long targetUserId = extractUserId(destination);
+        if (!clusterEnabled || targetUserId == null || localSessions.containsKey(targetUserId)) {
+            sendLocal(destination, json);
+        }
+        if (!clusterEnabled) {
+            return;
+        }
+
+        try {
+            String envelope = objectMapper.writeValueAsString(new Envelope(nodeId, destination, json));
+            stringRedisTemplate.convertAndSend(CHANNEL, envelope);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize cluster envelope", e);
+        }
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Long userId = userIdOf(event);
+        String sessionId = sessionIdOf(event);
+        if (userId != null && sessionId != null) {
+            localSessions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnected(SessionDisconnectEvent event) {
+        Long userId = userIdOf(event);
+        if (userId == null) {
+            return;
+        }
+        localSessions.computeIfPresent(userId, (id, sessions) -> {
+            sessions.remove(event.getSessionId());
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    private void onClusterMessage(String raw) {
+        try {
+            Envelope envelope = objectMapper.readValue(raw, Envelope.class);
+            if (nodeId.equals(envelope.origin())) {
+                return; // локальная доставка уже выполнена
+            }
+
+            Long targetUserId = extractUserId(envelope.destination());
+            if (targetUserId != null && !localSessions.containsKey(targetUserId)) {
+                return; // адресат не подключен к этому узлу
+            }
+
+            sendLocal(envelope.destination(), envelope.payload());
+        } catch (Exception e) {
+            log.error("Failed to deliver clustered WebSocket message: {}", e.getMessage());
+        }
+    }
+
+    private void sendLocal(String destination, String json) {
+        messagingTemplate.convertAndSend(destination, json.getBytes(StandardCharsets.UTF_8),
+                Map.of(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON));
+    }
+
+    // "/user/{id}/queue/..." -> id; для широковещательных адресов null
+    private Long extractUserId(String destination) {
+        if (destination == null || !destination.startsWith(USER_PREFIX)) {
+            return null;
+        }
+        int end = destination.indexOf('/', USER_PREFIX.length());
+        if (end < 0) {
+            return null;
+        }
+        try {
+            return Long.valueOf(destination.substring(USER_PREFIX.length(), end));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Long userIdOf(AbstractSubProtocolEvent event) {
+        Principal principal = event.getUser();
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    private String sessionIdOf(AbstractSubProtocolEvent event) {
+        Object sessionId = event.getMessage().getHeaders().get("simpSessionId");
+        return sessionId != null ? sessionId.toString() : null;
+    }
+
+    record Envelope(String origin, String destination, String payload) {
+    }
+}
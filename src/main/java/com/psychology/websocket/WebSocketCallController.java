@@ -6,7 +6,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
@@ -15,7 +14,7 @@ import org.springframework.stereotype.Controller;
 @Slf4j
 public class WebSocketCallController {
 
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterMessagingService messagingTemplate;
 
     @MessageMapping("/call.offer")
     public void offer(@Payload CallDTO.Signal request, Authentication authentication) {
@@ -3,6 +3,9 @@ package com.psychology.websocket;
 import com.psychology.dto.ChatDTO;
 import com.psychology.dto.TypingNotificationDTO;
 import com.psychology.model.entity.User;
+import com.psychology.ratelimiting.RateLimitDecision;
+import com.psychology.ratelimiting.RateLimitPolicies;
+import com.psychology.ratelimiting.RateLimiter;
 import com.psychology.service.ChatService;
 import com.psychology.service.NotificationService;
 import lombok.Data;
@@ -10,7 +13,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
@@ -21,7 +23,8 @@ public class WebSocketChatController {
 
     private final ChatService chatService;
     private final NotificationService notificationService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ClusterMessagingService messagingTemplate;
+    private final RateLimiter rateLimiter;
 
     @MessageMapping("/chat.send")
     public void sendMessage(@Payload ChatDTO.SendMessageRequest request,
@@ -30,6 +33,18 @@ public class WebSocketChatController {
             log.info("WebSocket send message from {}", authentication.getName());
 
             User sender = (User) authentication.getPrincipal();
+
+            // Та же политика, что и у POST /api/v1/chat/send
+            RateLimitDecision decision = rateLimiter.check(RateLimitPolicies.CHAT_SEND, "user:" + sender.getId());
+            if (!decision.allowed()) {
+                log.warn("WebSocket chat rate limit exceeded for user {}", sender.getId());
+                // Клиент должен узнать об отказе, иначе оптимистичное сообщение так и останется "отправленным"
+                messagingTemplate.convertAndSend("/user/" + sender.getId() + "/queue/errors",
+                        new ErrorMessage("RATE_LIMITED", "Rate limit exceeded. Please try again later.",
+                                decision.retryAfterSeconds()));
+                return;
+            }
+
             ChatDTO.MessageResponse response = chatService.sendMessage(sender, request);
 
             // Отправляем сообщение получателю
@@ -40,9 +55,6 @@ public class WebSocketChatController {
             String senderDestination = "/user/" + sender.getId() + "/queue/messages";
             messagingTemplate.convertAndSend(senderDestination, response);
 
-            // Отправляем уведомление через NotificationService
-            notificationService.sendNewMessageNotification(response);
-
         } catch (Exception e) {
             log.error("Error sending message via WebSocket: {}", e.getMessage());
         }
@@ -79,6 +91,27 @@ public class WebSocketChatController {
         }
     }
 
+    @MessageMapping("/chat.readUpTo")
+    public void markReadUpTo(@Payload ChatDTO.MarkReadUpToRequest request,
+                             Authentication authentication) {
+        try {
+            User user = (User) authentication.getPrincipal();
+            ChatDTO.ReadReceipt receipt =
+                    chatService.markReadUpTo(user, request.getPeerId(), request.getUpToMessageId());
+
+            // Одно подтверждение на всю пачку вместо кадра на каждое сообщение
+            if (receipt.getReadCount() > 0) {
+                notificationService.sendReadReceipt(request.getPeerId(), receipt);
+            }
+
+        } catch (Exception e) {
+            log.error("Error marking messages as read: {}", e.getMessage());
+        }
+    }
+
+    public record ErrorMessage(String code, String message, long retryAfterSeconds) {
+    }
+
     @Data
     public static class TypingRequest {
         private Long receiverId;
@@ -0,0 +1,17 @@
+-- Объекты Postgres, которые Hibernate (ddl-auto=update) создать не умеет.
+-- Выполняется при каждом старте после инициализации JPA, поэтому все команды идемпотентны.
+
+-- Поиск записей дневника по тегам (jsonb @>)
+CREATE INDEX IF NOT EXISTS idx_journal_entries_tags_gin ON journal_entries USING gin (tags jsonb_path_ops);
+
+-- Полнотекстовый поиск (russian + english) по дневнику и переписке
+ALTER TABLE journal_entries ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('russian', COALESCE(content, '')) || to_tsvector('english', COALESCE(content, ''))) STORED;
+CREATE INDEX IF NOT EXISTS idx_journal_entries_search ON journal_entries USING gin (search_vector);
+
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('russian', COALESCE(content, '')) || to_tsvector('english', COALESCE(content, ''))) STORED;
+CREATE INDEX IF NOT EXISTS idx_messages_search ON messages USING gin (search_vector);
+
+-- Очистка уведомлений идет по (created_at, id); одностолбцовый индекс больше не нужен
+DROP INDEX IF EXISTS idx_notifications_created_at;
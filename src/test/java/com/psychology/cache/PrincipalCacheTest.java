@@ -0,0 +1,124 @@
+package com.psychology.cache;
+
+import com.psychology.event.UserAccountChangedEvent;
+import com.psychology.model.entity.Client;
+import com.psychology.model.entity.Psychologist;
+import com.psychology.model.entity.UserRole;
+import com.psychology.repository.ClientRepository;
+import com.psychology.repository.PsychologistRepository;
+import com.psychology.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrincipalCacheTest {
+
+    private static final String PHONE = "+79001234567";
+
+    private UserRepository userRepository;
+    private StringRedisTemplate redisTemplate;
+    private PrincipalCache cache;
+    private MessageListener invalidationListener;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        redisTemplate = mock(StringRedisTemplate.class);
+        RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+        cache = new PrincipalCache(userRepository, mock(ClientRepository.class), mock(PsychologistRepository.class),
+                redisTemplate, listenerContainer);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.invokeMethod(cache, "subscribe");
+
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), any(Topic.class));
+        invalidationListener = listener.getValue();
+
+        when(userRepository.findByPhone(PHONE)).thenReturn(Optional.of(client(42L, PHONE, 7L)));
+    }
+
+    @Test
+    void secondLookupIsServedFromCache() {
+        PrincipalCache.PrincipalSnapshot snapshot = cache.get(PHONE).orElseThrow();
+
+        assertThat(cache.get(PHONE)).contains(snapshot);
+        assertThat(snapshot.role()).isEqualTo(UserRole.ROLE_CLIENT);
+        assertThat(snapshot.psychologistId()).isEqualTo(7L);
+        verify(userRepository, times(1)).findByPhone(PHONE);
+        assertThat(cache.getStats().hits()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidationByUserIdEvictsEntryCachedUnderPhone() {
+        cache.get(PHONE);
+
+        cache.onUserAccountChanged(new UserAccountChangedEvent(42L, null));
+        cache.get(PHONE);
+
+        verify(userRepository, times(2)).findByPhone(PHONE);
+        assertThat(cache.getStats().invalidations()).isEqualTo(1);
+        verify(redisTemplate).convertAndSend("principal:invalidate", "42");
+    }
+
+    @Test
+    void invalidationFromAnotherNodeEvictsById() {
+        cache.get(PHONE);
+
+        invalidationListener.onMessage(
+                new DefaultMessage("principal:invalidate".getBytes(StandardCharsets.UTF_8),
+                        "42".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(cache.getStats().size()).isZero();
+    }
+
+    @Test
+    void invalidationOfUnknownUserKeepsOtherEntries() {
+        cache.get(PHONE);
+
+        cache.onUserAccountChanged(new UserAccountChangedEvent(43L, "+79007654321"));
+
+        assertThat(cache.getStats().size()).isEqualTo(1);
+        assertThat(cache.getStats().invalidations()).isZero();
+    }
+
+    @Test
+    void snapshotOfUnverifiedPsychologistIsNotVerified() {
+        Psychologist psychologist = new Psychologist();
+        psychologist.setId(7L);
+        psychologist.setPhone("+79000000007");
+        psychologist.setRole(UserRole.ROLE_PSYCHOLOGIST);
+        psychologist.setVerified(false);
+        when(userRepository.findByPhone("+79000000007")).thenReturn(Optional.of(psychologist));
+
+        assertThat(cache.get("+79000000007")).map(PrincipalCache.PrincipalSnapshot::verified).contains(false);
+    }
+
+    private static Client client(Long id, String phone, Long psychologistId) {
+        Psychologist psychologist = new Psychologist();
+        psychologist.setId(psychologistId);
+        Client client = new Client();
+        client.setId(id);
+        client.setPhone(phone);
+        client.setRole(UserRole.ROLE_CLIENT);
+        client.setPsychologist(psychologist);
+        return client;
+    }
+}
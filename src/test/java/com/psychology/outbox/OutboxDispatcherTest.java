@@ -0,0 +1,151 @@
+package com.psychology.outbox;
+
+import com.psychology.model.entity.OutboxMessage;
+import com.psychology.repository.OutboxMessageRepository;
+import com.psychology.websocket.ClusterMessagingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxDispatcherTest {
+
+    private static final long WAIT_MS = 2000;
+
+    private OutboxMessageRepository repository;
+    private ClusterMessagingService messagingService;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxMessageRepository.class);
+        messagingService = mock(ClusterMessagingService.class);
+        dispatcher = new OutboxDispatcher(repository, messagingService);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "maxConcurrency", 4);
+        ReflectionTestUtils.setField(dispatcher, "leaseSeconds", 30L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffBaseMs", 1000L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxMs", 10_000L);
+        ReflectionTestUtils.invokeMethod(dispatcher, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(dispatcher, "shutdown");
+    }
+
+    @Test
+    void deliversClaimedBatchInOrderAndDeletesIt() {
+        when(repository.claimDue(eq(10), eq(Duration.ofSeconds(30))))
+                .thenReturn(List.of(message(1, "/user/1/queue/notifications", 0),
+                        message(2, "/user/1/queue/notifications", 0)))
+                .thenReturn(List.of());
+
+        dispatcher.poll();
+
+        verify(repository, timeout(WAIT_MS)).deleteByIdIn(List.of(1L, 2L));
+        InOrder order = inOrder(messagingService);
+        order.verify(messagingService).sendJson("/user/1/queue/notifications", "{\"id\":1}");
+        order.verify(messagingService).sendJson("/user/1/queue/notifications", "{\"id\":2}");
+        assertThat(dispatcher.getStats().delivered()).isEqualTo(2);
+    }
+
+    @Test
+    void failureDefersRestOfDestinationWithoutTouchingOthers() {
+        when(repository.claimDue(anyInt(), any()))
+                .thenReturn(List.of(message(1, "/user/1/queue/a", 0), message(2, "/user/1/queue/a", 0),
+                        message(3, "/user/1/queue/a", 0), message(4, "/user/2/queue/a", 0)))
+                .thenReturn(List.of());
+        doThrow(new IllegalStateException("broker down"))
+                .when(messagingService).sendJson("/user/1/queue/a", "{\"id\":2}");
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.poll();
+
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository, timeout(WAIT_MS)).markAttemptFailed(eq(2L), retryAt.capture(), eq("broker down"),
+                eq(OutboxMessage.Status.PENDING));
+        // Первая попытка — базовая задержка
+        assertThat(retryAt.getValue()).isBetween(before.plusSeconds(1), LocalDateTime.now().plusSeconds(1));
+        // Хвост группы ждет вместе с упавшим, чтобы не обогнать его
+        verify(repository, timeout(WAIT_MS)).reschedule(List.of(3L), retryAt.getValue());
+        verify(repository, timeout(WAIT_MS)).deleteByIdIn(List.of(1L));
+        verify(repository, timeout(WAIT_MS)).deleteByIdIn(List.of(4L));
+        verify(messagingService, after(200).never()).sendJson("/user/1/queue/a", "{\"id\":3}");
+        assertThat(dispatcher.getStats().retried()).isEqualTo(1);
+    }
+
+    @Test
+    void lastAttemptMarksMessageFailed() {
+        when(repository.claimDue(anyInt(), any()))
+                .thenReturn(List.of(message(7, "/user/1/queue/a", 2)))
+                .thenReturn(List.of());
+        doThrow(new IllegalStateException("gone")).when(messagingService).sendJson(anyString(), anyString());
+
+        dispatcher.poll();
+
+        verify(repository, timeout(WAIT_MS)).markAttemptFailed(eq(7L), any(), eq("gone"),
+                eq(OutboxMessage.Status.FAILED));
+        verify(repository, after(200).never()).deleteByIdIn(any());
+        verify(repository, never()).reschedule(any(), any());
+        assertThat(dispatcher.getStats().failed()).isEqualTo(1);
+    }
+
+    @Test
+    void fullBatchTriggersNextClaimImmediately() {
+        List<OutboxMessage> full = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            full.add(message(i, "/user/" + i + "/queue/a", 0));
+        }
+        when(repository.claimDue(anyInt(), any()))
+                .thenReturn(full)
+                .thenReturn(List.of(message(11, "/user/11/queue/a", 0)))
+                .thenReturn(List.of());
+
+        dispatcher.poll();
+
+        verify(messagingService, timeout(WAIT_MS)).sendJson("/user/11/queue/a", "{\"id\":11}");
+    }
+
+    @Test
+    void backoffDoublesAndIsCapped() {
+        assertThat((Duration) ReflectionTestUtils.invokeMethod(dispatcher, "backoff", 1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat((Duration) ReflectionTestUtils.invokeMethod(dispatcher, "backoff", 2)).isEqualTo(Duration.ofSeconds(2));
+        assertThat((Duration) ReflectionTestUtils.invokeMethod(dispatcher, "backoff", 4)).isEqualTo(Duration.ofSeconds(8));
+        assertThat((Duration) ReflectionTestUtils.invokeMethod(dispatcher, "backoff", 5)).isEqualTo(Duration.ofSeconds(10));
+        assertThat((Duration) ReflectionTestUtils.invokeMethod(dispatcher, "backoff", 60)).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    private static OutboxMessage message(long id, String destination, int attempts) {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(id);
+        message.setDestination(destination);
+        message.setPayload("{\"id\":" + id + "}");
+        message.setAttempts(attempts);
+        message.setNextAttemptAt(LocalDateTime.now());
+        message.setCreatedAt(LocalDateTime.now());
+        return message;
+    }
+}
@@ -0,0 +1,117 @@
+package com.psychology.ratelimiting;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimitFilterTest {
+
+    private static final RateLimitPolicy POLICY = new RateLimitPolicy("test", 10, Duration.ofSeconds(10));
+    // Скорость восполнения 2^-10 токена в мс — сравнение узла и общего bucket без ошибок округления
+    private static final RateLimitPolicy BINARY_POLICY = new RateLimitPolicy("binary", 8, Duration.ofMillis(8192));
+
+    private LocalRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = newFilter(1000);
+    }
+
+    @Test
+    void allowsCapacityThenRejectsUntilNextToken() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(filter.tryTake(POLICY, "user:1", 0)).isNull();
+        }
+
+        RateLimitDecision rejected = filter.tryTake(POLICY, "user:1", 0);
+
+        assertThat(rejected.allowed()).isFalse();
+        // Один токен восполняется за period / capacity = 1 с
+        assertThat(rejected.retryAfterMs()).isEqualTo(1000);
+        assertThat(filter.tryTake(POLICY, "user:1", 1000)).isNull();
+    }
+
+    @Test
+    void keysAreIndependent() {
+        for (int i = 0; i < 10; i++) {
+            filter.tryTake(POLICY, "user:1", 0);
+        }
+
+        assertThat(filter.tryTake(POLICY, "user:2", 0)).isNull();
+    }
+
+    /**
+     * Узел видит только часть запросов ключа, поэтому его bucket не может опустеть раньше общего:
+     * локальный отказ допустим только тогда, когда общий bucket тоже отказал бы.
+     */
+    @Test
+    void localRejectionImpliesSharedRejection() {
+        int nodes = 3;
+        LocalRateLimitFilter[] local = new LocalRateLimitFilter[nodes];
+        for (int i = 0; i < nodes; i++) {
+            local[i] = newFilter(1000);
+        }
+        // Общий bucket Redis с теми же параметрами видит все запросы
+        LocalRateLimitFilter shared = newFilter(1000);
+
+        Random random = new Random(42);
+        long now = 0;
+        int localRejections = 0;
+        for (int request = 0; request < 5000; request++) {
+            now += random.nextInt(500);
+            int node = random.nextInt(nodes);
+            RateLimitDecision localDecision = local[node].tryTake(BINARY_POLICY, "user:1", now);
+            if (localDecision != null) {
+                localRejections++;
+                assertThat(shared.tryTake(BINARY_POLICY, "user:1", now))
+                        .as("request %d rejected locally on node %d but shared bucket has tokens", request, node)
+                        .isNotNull();
+                continue;
+            }
+            shared.tryTake(BINARY_POLICY, "user:1", now);
+        }
+        assertThat(localRejections).isPositive();
+    }
+
+    @Test
+    void remoteRejectionBlocksLocallyUntilRetryAfter() {
+        filter.tryTake(POLICY, "user:1", 0);
+        filter.block(POLICY, "user:1", 5000);
+
+        RateLimitDecision blocked = filter.tryTake(POLICY, "user:1", 2000);
+        assertThat(blocked.allowed()).isFalse();
+        assertThat(blocked.retryAfterMs()).isEqualTo(3000);
+        assertThat(filter.tryTake(POLICY, "user:1", 4999)).isNotNull();
+        assertThat(filter.tryTake(POLICY, "user:1", 5000)).isNull();
+    }
+
+    @Test
+    void earlierBlockDoesNotShortenLaterOne() {
+        filter.tryTake(POLICY, "user:1", 0);
+        filter.block(POLICY, "user:1", 5000);
+        filter.block(POLICY, "user:1", 3000);
+
+        assertThat(filter.tryTake(POLICY, "user:1", 4000)).isNotNull();
+    }
+
+    @Test
+    void evictsIdleKeysBeyondLimit() {
+        LocalRateLimitFilter small = newFilter(3);
+        for (int i = 0; i < 10; i++) {
+            small.tryTake(POLICY, "user:" + i, i * 1000L);
+        }
+
+        assertThat(small.size()).isLessThanOrEqualTo(3);
+    }
+
+    private static LocalRateLimitFilter newFilter(int maxKeys) {
+        LocalRateLimitFilter filter = new LocalRateLimitFilter();
+        ReflectionTestUtils.setField(filter, "maxKeys", maxKeys);
+        return filter;
+    }
+}
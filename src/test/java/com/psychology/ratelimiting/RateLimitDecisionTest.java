@@ -0,0 +1,34 @@
+package com.psychology.ratelimiting;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitDecisionTest {
+
+    @Test
+    void retryAfterRoundsUpToWholeSeconds() {
+        assertThat(RateLimitDecision.reject(1).retryAfterSeconds()).isEqualTo(1);
+        assertThat(RateLimitDecision.reject(999).retryAfterSeconds()).isEqualTo(1);
+        assertThat(RateLimitDecision.reject(1000).retryAfterSeconds()).isEqualTo(1);
+        assertThat(RateLimitDecision.reject(1001).retryAfterSeconds()).isEqualTo(2);
+        assertThat(RateLimitDecision.reject(59_500).retryAfterSeconds()).isEqualTo(60);
+    }
+
+    @Test
+    void rejectionNeverAdvertisesZeroRetryAfter() {
+        RateLimitDecision decision = RateLimitDecision.reject(0);
+
+        assertThat(decision.retryAfterMs()).isEqualTo(1);
+        assertThat(decision.retryAfterSeconds()).isEqualTo(1);
+    }
+
+    @Test
+    void allowHasNoRetryAfter() {
+        RateLimitDecision decision = RateLimitDecision.allow(7);
+
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.remaining()).isEqualTo(7);
+        assertThat(decision.retryAfterSeconds()).isZero();
+    }
+}
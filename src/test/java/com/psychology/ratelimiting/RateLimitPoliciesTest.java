@@ -0,0 +1,71 @@
+package com.psychology.ratelimiting;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimitPoliciesTest {
+
+    private final RateLimitPolicies policies = new RateLimitPolicies(new MockEnvironment());
+
+    @Test
+    void refreshIsExcludedBeforeAuthWildcard() {
+        assertThat(policies.resolve("POST", "/api/v1/auth/refresh")).isEmpty();
+        assertThat(policy("POST", "/api/v1/auth/login")).contains(RateLimitPolicies.AUTH);
+    }
+
+    @Test
+    void narrowOtpRouteWinsOverAuthWildcard() {
+        Optional<RateLimitPolicies.Route> route = policies.resolve("POST", "/api/v1/auth/send-otp");
+
+        assertThat(route).map(RateLimitPolicies.Route::policy).contains(RateLimitPolicies.OTP);
+        assertThat(route).map(RateLimitPolicies.Route::keyType).contains(RateLimitPolicies.KeyType.IP);
+        assertThat(policy("GET", "/api/v1/otp/status")).contains(RateLimitPolicies.OTP);
+    }
+
+    @Test
+    void journalCreateMatchesOnlyPost() {
+        assertThat(policy("POST", "/api/v1/journal")).contains(RateLimitPolicies.JOURNAL_CREATE);
+        assertThat(policies.resolve("GET", "/api/v1/journal")).isEmpty();
+        assertThat(policies.resolve("POST", "/api/v1/journal/15")).isEmpty();
+    }
+
+    @Test
+    void userKeyedRoutes() {
+        assertThat(policies.resolve("POST", "/api/v1/profile/phone/send-otp"))
+                .map(RateLimitPolicies.Route::keyType).contains(RateLimitPolicies.KeyType.USER);
+        assertThat(policy("POST", "/api/v1/chat/send")).contains(RateLimitPolicies.CHAT_SEND);
+        assertThat(policies.resolve("GET", "/api/v1/chat/send")).isEmpty();
+        assertThat(policies.resolve("GET", "/api/v1/recommendations")).isEmpty();
+    }
+
+    @Test
+    void policyReadsOverridesFromEnvironment() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.rate-limit.policies.otp.capacity", "5")
+                .withProperty("app.rate-limit.policies.otp.period-seconds", "120");
+        RateLimitPolicies configured = new RateLimitPolicies(environment);
+
+        assertThat(configured.policy(RateLimitPolicies.OTP))
+                .isEqualTo(new RateLimitPolicy(RateLimitPolicies.OTP, 5, Duration.ofMinutes(2)));
+        assertThat(configured.policy(RateLimitPolicies.AUTH).capacity()).isEqualTo(10);
+    }
+
+    @Test
+    void rejectsUnknownOrInvalidPolicy() {
+        assertThatThrownBy(() -> policies.policy("missing")).isInstanceOf(IllegalArgumentException.class);
+
+        RateLimitPolicies invalid = new RateLimitPolicies(new MockEnvironment()
+                .withProperty("app.rate-limit.policies.auth.capacity", "0"));
+        assertThatThrownBy(() -> invalid.policy(RateLimitPolicies.AUTH)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Optional<String> policy(String method, String path) {
+        return policies.resolve(method, path).map(RateLimitPolicies.Route::policy);
+    }
+}
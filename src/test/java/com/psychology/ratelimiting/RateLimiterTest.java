@@ -0,0 +1,64 @@
+package com.psychology.ratelimiting;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateLimiterTest {
+
+    private RedisTokenBucket redisTokenBucket;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        redisTokenBucket = mock(RedisTokenBucket.class);
+        LocalRateLimitFilter localFilter = new LocalRateLimitFilter();
+        ReflectionTestUtils.setField(localFilter, "maxKeys", 1000);
+        rateLimiter = new RateLimiter(new RateLimitPolicies(new MockEnvironment()), localFilter, redisTokenBucket);
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+    }
+
+    @Test
+    void remoteRejectionIsServedLocallyUntilRetryAfter() {
+        when(redisTokenBucket.take(any(), eq("user:1"))).thenReturn(RateLimitDecision.reject(60_000));
+
+        RateLimitDecision first = rateLimiter.check(RateLimitPolicies.CHAT_SEND, "user:1");
+        RateLimitDecision second = rateLimiter.check(RateLimitPolicies.CHAT_SEND, "user:1");
+
+        assertThat(first.allowed()).isFalse();
+        assertThat(second.allowed()).isFalse();
+        assertThat(second.retryAfterMs()).isPositive().isLessThanOrEqualTo(60_000);
+        verify(redisTokenBucket, times(1)).take(any(), eq("user:1"));
+        assertThat(rateLimiter.getStats().rejectedByRedis()).isEqualTo(1);
+        assertThat(rateLimiter.getStats().rejectedLocally()).isEqualTo(1);
+    }
+
+    @Test
+    void localBucketRejectsWithoutRedisOnceEmpty() {
+        when(redisTokenBucket.take(any(), eq("user:1"))).thenReturn(RateLimitDecision.allow(1));
+
+        // chat-send по умолчанию: 30 сообщений за 10 секунд
+        for (int i = 0; i < 30; i++) {
+            assertThat(rateLimiter.check(RateLimitPolicies.CHAT_SEND, "user:1").allowed()).isTrue();
+        }
+        assertThat(rateLimiter.check(RateLimitPolicies.CHAT_SEND, "user:1").allowed()).isFalse();
+        verify(redisTokenBucket, times(30)).take(any(), eq("user:1"));
+    }
+
+    @Test
+    void redisFailureAllowsRequest() {
+        when(redisTokenBucket.take(any(), any())).thenThrow(new IllegalStateException("connection refused"));
+
+        assertThat(rateLimiter.check(RateLimitPolicies.AUTH, "ip:10.0.0.1").allowed()).isTrue();
+        assertThat(rateLimiter.getStats().redisErrors()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,117 @@
+package com.psychology.repository;
+
+import com.psychology.model.entity.Client;
+import com.psychology.model.entity.Notification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotificationRepositoryImplTest {
+
+    // Поля одной строки INSERT; dedup_key — последнее
+    private static final int COLUMNS = 8;
+
+    private final Set<String> storedKeys = new HashSet<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final List<String> statements = new ArrayList<>();
+
+    private NotificationRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        // Имитация INSERT ... ON CONFLICT (dedup_key) DO NOTHING RETURNING id, dedup_key
+        doAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            RowCallbackHandler handler = invocation.getArgument(1);
+            Object[] args = invocation.getArguments();
+            for (int i = 2 + COLUMNS - 1; i < args.length; i += COLUMNS) {
+                String key = (String) args[i];
+                if (storedKeys.add(key)) {
+                    handler.processRow(row(ids.incrementAndGet(), key));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        repository = new NotificationRepositoryImpl(jdbcTemplate);
+        ReflectionTestUtils.setField(repository, "batchSize", 2);
+    }
+
+    @Test
+    void secondInsertOfSameRemindersIsNoOp() {
+        List<Notification> first = repository.insertIgnoringDuplicates(List.of(
+                reminder(1L, "SESSION:5:SESSION_REMINDER_1H:1"),
+                reminder(2L, "SESSION:5:SESSION_REMINDER_1H:2")));
+        List<Notification> retry = repository.insertIgnoringDuplicates(List.of(
+                reminder(1L, "SESSION:5:SESSION_REMINDER_1H:1"),
+                reminder(2L, "SESSION:5:SESSION_REMINDER_1H:2")));
+
+        assertThat(first).hasSize(2).allSatisfy(n -> assertThat(n.getId()).isNotNull());
+        assertThat(retry).isEmpty();
+        assertThat(storedKeys).hasSize(2);
+    }
+
+    @Test
+    void duplicatesInsideOneBatchAreSentOnce() {
+        List<Notification> inserted = repository.insertIgnoringDuplicates(List.of(
+                reminder(1L, "SESSION:5:SESSION_REMINDER_24H:1"),
+                reminder(1L, "SESSION:5:SESSION_REMINDER_24H:1")));
+
+        assertThat(inserted).hasSize(1);
+        assertThat(statements).hasSize(1);
+        assertThat(statements.get(0)).containsOnlyOnce("(?, ?, ?, ?, false, ?, ?, ?, ?)");
+    }
+
+    @Test
+    void returnsOnlyNewRowsWhenBatchPartiallyConflicts() {
+        repository.insertIgnoringDuplicates(List.of(reminder(1L, "SESSION:5:SESSION_REMINDER_1H:1")));
+
+        List<Notification> inserted = repository.insertIgnoringDuplicates(List.of(
+                reminder(1L, "SESSION:5:SESSION_REMINDER_1H:1"),
+                reminder(2L, "SESSION:5:SESSION_REMINDER_1H:2"),
+                reminder(3L, "SESSION:6:SESSION_REMINDER_1H:3")));
+
+        assertThat(inserted).extracting(Notification::getDedupKey)
+                .containsExactlyInAnyOrder("SESSION:5:SESSION_REMINDER_1H:2", "SESSION:6:SESSION_REMINDER_1H:3");
+        // batchSize = 2: три строки уходят двумя запросами
+        assertThat(statements).hasSize(3);
+    }
+
+    private static Notification reminder(Long userId, String dedupKey) {
+        Client user = new Client();
+        user.setId(userId);
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setType(Notification.NotificationType.SESSION_REMINDER_1H);
+        notification.setTitle("Скоро начнется сеанс");
+        notification.setMessage("До начала сеанса остался 1 час");
+        notification.setRelatedEntityId(5L);
+        notification.setRelatedEntityType("SESSION");
+        notification.setDedupKey(dedupKey);
+        return notification;
+    }
+
+    private static ResultSet row(long id, String dedupKey) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getString("dedup_key")).thenReturn(dedupKey);
+        return rs;
+    }
+}
@@ -0,0 +1,70 @@
+package com.psychology.repository;
+
+import com.psychology.model.entity.OutboxMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OutboxMessageRepositoryImplTest {
+
+    @Test
+    void claimsDueRowsWithLeaseAndReturnsThemInIdOrder() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        List<Object[]> calls = new ArrayList<>();
+        doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            calls.add(args);
+            RowMapper<OutboxMessage> mapper = invocation.getArgument(1);
+            // RETURNING отдает строки в произвольном порядке
+            List<OutboxMessage> rows = new ArrayList<>();
+            int rowNum = 0;
+            for (long id : new long[]{5, 3, 9}) {
+                rows.add(mapper.mapRow(row(id), rowNum++));
+            }
+            return rows;
+        }).when(jdbcTemplate).query(anyString(), any(RowMapper.class), any(Object[].class));
+
+        LocalDateTime before = LocalDateTime.now();
+        List<OutboxMessage> claimed = new OutboxMessageRepositoryImpl(jdbcTemplate)
+                .claimDue(50, Duration.ofSeconds(30));
+
+        assertThat(claimed).extracting(OutboxMessage::getId).containsExactly(3L, 5L, 9L);
+        assertThat(claimed.get(0).getDestination()).isEqualTo("/user/3/queue/notifications");
+        assertThat(claimed.get(0).getAttempts()).isEqualTo(1);
+
+        Object[] args = calls.get(0);
+        assertThat((String) args[0]).contains("FOR UPDATE SKIP LOCKED").contains("status = 'PENDING'");
+        LocalDateTime leaseUntil = ((Timestamp) args[2]).toLocalDateTime();
+        LocalDateTime dueBefore = ((Timestamp) args[3]).toLocalDateTime();
+        // Lease сдвигает next_attempt_at вперед: упавший узел отдаст сообщения другим через 30 секунд
+        assertThat(Duration.between(dueBefore, leaseUntil)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(dueBefore).isAfterOrEqualTo(before);
+        assertThat(args[4]).isEqualTo(50);
+    }
+
+    private static ResultSet row(long id) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getString("destination")).thenReturn("/user/" + id + "/queue/notifications");
+        when(rs.getString("payload")).thenReturn("{}");
+        when(rs.getInt("attempts")).thenReturn(1);
+        when(rs.getTimestamp("next_attempt_at")).thenReturn(now);
+        when(rs.getTimestamp("created_at")).thenReturn(now);
+        return rs;
+    }
+}
@@ -0,0 +1,83 @@
+package com.psychology.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    // Тик 1 с, 8 слотов: один оборот колеса — 8 секунд
+    private TimingWheel<String> wheel() {
+        return new TimingWheel<>(1000, 8, 0);
+    }
+
+    @Test
+    void firesTaskScheduledSeveralRotationsAhead() {
+        TimingWheel<String> wheel = wheel();
+        // Тик 20 попадает в тот же слот (4), что и тики 4 и 12
+        wheel.schedule("far", 20_500, "far");
+
+        assertThat(wheel.advance(4_000)).isEmpty();
+        assertThat(wheel.advance(12_999)).isEmpty();
+        assertThat(wheel.advance(19_999)).isEmpty();
+        assertThat(wheel.advance(20_000)).containsExactly("far");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void keepsLaterRotationWhenSlotIsShared() {
+        TimingWheel<String> wheel = wheel();
+        wheel.schedule("near", 4_000, "near");
+        wheel.schedule("far", 12_000, "far");
+
+        assertThat(wheel.advance(4_000)).containsExactly("near");
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(12_000)).containsExactly("far");
+    }
+
+    @Test
+    void catchesUpAfterLongPause() {
+        TimingWheel<String> wheel = wheel();
+        wheel.schedule("a", 3_000, "a");
+        wheel.schedule("b", 30_000, "b");
+        wheel.schedule("c", 95_000, "c");
+
+        List<String> due = wheel.advance(100_000);
+
+        assertThat(due).containsExactlyInAnyOrder("a", "b", "c");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void rescheduleWithSameKeyReplacesPreviousTask() {
+        TimingWheel<String> wheel = wheel();
+        wheel.schedule("session:1", 5_000, "old");
+        wheel.schedule("session:1", 21_000, "new");
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(6_000)).isEmpty();
+        assertThat(wheel.advance(21_000)).containsExactly("new");
+    }
+
+    @Test
+    void cancelRemovesTask() {
+        TimingWheel<String> wheel = wheel();
+        wheel.schedule("session:1", 5_000, "task");
+
+        assertThat(wheel.cancel("session:1")).isTrue();
+        assertThat(wheel.cancel("session:1")).isFalse();
+        assertThat(wheel.advance(10_000)).isEmpty();
+    }
+
+    @Test
+    void overdueTaskFiresOnNextTick() {
+        TimingWheel<String> wheel = wheel();
+        wheel.advance(10_000);
+        wheel.schedule("late", 2_000, "late");
+
+        assertThat(wheel.advance(10_999)).isEmpty();
+        assertThat(wheel.advance(11_000)).containsExactly("late");
+    }
+}
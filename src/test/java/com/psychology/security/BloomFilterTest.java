@@ -0,0 +1,86 @@
+package com.psychology.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsInsertedValueAsAbsent() {
+        BloomFilter filter = new BloomFilter(10_000, 0.001);
+        List<String> inserted = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String id = UUID.randomUUID().toString();
+            filter.put(id);
+            inserted.add(id);
+        }
+
+        assertThat(inserted).allMatch(filter::mightContain);
+        assertThat(filter.insertions()).isEqualTo(10_000);
+    }
+
+    @Test
+    void observedFalsePositiveRateStaysNearTarget() {
+        double target = 0.01;
+        BloomFilter filter = new BloomFilter(20_000, target);
+        for (int i = 0; i < 20_000; i++) {
+            filter.put("revoked-" + i);
+        }
+
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("active-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Запас вдвое на разброс: на 200 000 проб стандартное отклонение ~0.02%
+        assertThat((double) falsePositives / probes).isLessThan(target * 2);
+    }
+
+    @Test
+    void sizesBitsAndHashesFromExpectedInsertions() {
+        BloomFilter filter = new BloomFilter(200_000, 0.001);
+
+        // m = -n ln p / (ln 2)^2 ≈ 14.4 бит на элемент, k ≈ 10
+        assertThat(filter.bitCount()).isEqualTo(2_875_520L);
+        assertThat(filter.hashFunctions()).isEqualTo(10);
+    }
+
+    @Test
+    void concurrentPutsAreNotLost() throws Exception {
+        BloomFilter filter = new BloomFilter(40_000, 0.001);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        filter.put(thread + ":" + i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int t = 0; t < 4; t++) {
+            for (int i = 0; i < 10_000; i++) {
+                assertThat(filter.mightContain(t + ":" + i)).isTrue();
+            }
+        }
+    }
+}
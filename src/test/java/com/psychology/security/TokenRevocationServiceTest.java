@@ -0,0 +1,133 @@
+package com.psychology.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private StringRedisTemplate redisTemplate;
+    private TokenRevocationService service;
+    private MessageListener revocationListener;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+        service = new TokenRevocationService(mock(JwtTokenProvider.class), redisTemplate, listenerContainer);
+        ReflectionTestUtils.setField(service, "expectedRevocations", 1000L);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.invokeMethod(service, "subscribe");
+
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), any(Topic.class));
+        revocationListener = listener.getValue();
+    }
+
+    @Test
+    void tokenIdPrefersJti() {
+        Claims claims = mock(Claims.class);
+        when(claims.getId()).thenReturn("6f1c0c1e-jti");
+
+        assertThat(service.tokenId(claims, "header.payload.signature")).isEqualTo("6f1c0c1e-jti");
+    }
+
+    @Test
+    void tokenIdFallsBackToSha256OfTokenWithoutJti() {
+        Claims blankJti = mock(Claims.class);
+        when(blankJti.getId()).thenReturn("  ");
+
+        // base64url(SHA-256("header.payload.signature")) без padding
+        String expected = "JW0E205eSsMIdR7QiFtyK3WGMFZ8U6cSXtn70Gjlw_Y";
+        assertThat(service.tokenId(mock(Claims.class), "header.payload.signature")).isEqualTo(expected);
+        assertThat(service.tokenId(blankJti, "header.payload.signature")).isEqualTo(expected);
+        assertThat(service.tokenId(null, "header.payload.signature")).isEqualTo(expected);
+    }
+
+    @Test
+    void beforeFirstLoadEveryTokenMightBeRevoked() {
+        assertThat(service.mightBeRevoked("anything")).isTrue();
+    }
+
+    @Test
+    void revocationArrivingDuringRebuildSurvivesFilterSwap() {
+        // Pub/sub-сообщение приходит, пока пересборка сканирует Redis
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor(List.of("revoked:from-redis"),
+                () -> revocationListener.onMessage(message("during-rebuild"), null)));
+
+        service.scheduledRebuild();
+
+        assertThat(service.mightBeRevoked("from-redis")).isTrue();
+        assertThat(service.mightBeRevoked("during-rebuild")).isTrue();
+        assertThat(service.mightBeRevoked("never-revoked")).isFalse();
+    }
+
+    @Test
+    void filterAnswersNotRevokedWithoutRedis() {
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor(List.of("revoked:known"), () -> {
+        }));
+        service.scheduledRebuild();
+        when(redisTemplate.hasKey("revoked:known")).thenReturn(true);
+
+        assertThat(service.isRevoked("never-revoked")).isFalse();
+        verify(redisTemplate, never()).hasKey("revoked:never-revoked");
+        assertThat(service.isRevoked("known")).isTrue();
+        assertThat(service.getStats().filteredOut()).isEqualTo(1);
+        assertThat(service.getStats().redisLookups()).isEqualTo(1);
+    }
+
+    @Test
+    void rebuildDropsEntriesThatExpiredInRedis() {
+        revocationListener.onMessage(message("expired"), null);
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor(List.of(), () -> {
+        }));
+
+        service.scheduledRebuild();
+
+        assertThat(service.mightBeRevoked("expired")).isFalse();
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    private static DefaultMessage message(String tokenId) {
+        return new DefaultMessage("token:revoked".getBytes(StandardCharsets.UTF_8),
+                tokenId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Курсор SCAN, который перед первой выдачей выполняет onFirstRead
+    @SuppressWarnings("unchecked")
+    private static Cursor<String> cursor(List<String> keys, Runnable onFirstRead) {
+        Iterator<String> iterator = keys.iterator();
+        boolean[] started = {false};
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> {
+            if (!started[0]) {
+                started[0] = true;
+                onFirstRead.run();
+            }
+            return iterator.hasNext();
+        });
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        return cursor;
+    }
+}
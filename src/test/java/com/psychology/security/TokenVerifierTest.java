@@ -0,0 +1,84 @@
+package com.psychology.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenVerifierTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private TokenRevocationService revocationService;
+    private TokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = mock(JwtTokenProvider.class);
+        revocationService = mock(TokenRevocationService.class);
+        verifier = new TokenVerifier(jwtTokenProvider, revocationService);
+        ReflectionTestUtils.setField(verifier, "ttlSeconds", 30L);
+        ReflectionTestUtils.setField(verifier, "maxSize", 100);
+
+        Claims claims = mock(Claims.class);
+        when(claims.getSubject()).thenReturn("+79990000001");
+        when(claims.getExpiration()).thenReturn(new Date(System.currentTimeMillis() + 600_000));
+        when(jwtTokenProvider.parseValidClaims(TOKEN)).thenReturn(claims);
+        when(revocationService.tokenId(claims, TOKEN)).thenReturn("jti-1");
+    }
+
+    @Test
+    void cachedTokenSkipsParsingWhileFilterSaysNotRevoked() {
+        when(revocationService.mightBeRevoked("jti-1")).thenReturn(false);
+
+        assertThat(verifier.verify(TOKEN).isValid()).isTrue();
+        assertThat(verifier.verify(TOKEN).isValid()).isTrue();
+
+        verify(jwtTokenProvider, times(1)).parseValidClaims(TOKEN);
+        verify(revocationService, times(1)).isRevoked("jti-1");
+    }
+
+    @Test
+    void cachedTokenIsDroppedOnceFilterMightContainIt() {
+        assertThat(verifier.verify(TOKEN).isValid()).isTrue();
+
+        // Отзыв на другом узле дошел до фильтра через pub/sub
+        when(revocationService.mightBeRevoked("jti-1")).thenReturn(true);
+        when(revocationService.isRevoked("jti-1")).thenReturn(true);
+
+        TokenVerifier.Result result = verifier.verify(TOKEN);
+
+        assertThat(result.status()).isEqualTo(TokenVerifier.Status.REVOKED);
+        verify(jwtTokenProvider, times(2)).parseValidClaims(TOKEN);
+        // Повторный запрос снова идет в полную проверку, а не в кеш
+        verifier.verify(TOKEN);
+        verify(jwtTokenProvider, times(3)).parseValidClaims(TOKEN);
+    }
+
+    @Test
+    void filterFalsePositiveRevalidatesAndRecachesToken() {
+        assertThat(verifier.verify(TOKEN).isValid()).isTrue();
+        when(revocationService.mightBeRevoked("jti-1")).thenReturn(true);
+
+        assertThat(verifier.verify(TOKEN).isValid()).isTrue();
+        verify(jwtTokenProvider, times(2)).parseValidClaims(TOKEN);
+    }
+
+    @Test
+    void invalidTokenIsNotCached() {
+        when(jwtTokenProvider.parseValidClaims("garbage")).thenReturn(null);
+
+        assertThat(verifier.verify("garbage").status()).isEqualTo(TokenVerifier.Status.INVALID);
+        assertThat(verifier.verify("garbage").status()).isEqualTo(TokenVerifier.Status.INVALID);
+        verify(jwtTokenProvider, times(2)).parseValidClaims("garbage");
+    }
+}
@@ -0,0 +1,48 @@
+package com.psychology.service;
+
+import com.psychology.model.entity.Message;
+import com.psychology.repository.ConversationSummaryRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatServiceTest {
+
+    @Test
+    void blankContentBecomesAttachmentSnippet() {
+        assertThat(ChatService.snippet(message(null))).isEqualTo("Вложение");
+        assertThat(ChatService.snippet(message(""))).isEqualTo("Вложение");
+        assertThat(ChatService.snippet(message(" \n\t"))).isEqualTo("Вложение");
+    }
+
+    @Test
+    void shortContentIsKeptAsIs() {
+        String content = "a".repeat(ConversationSummaryRepository.SNIPPET_LENGTH);
+
+        assertThat(ChatService.snippet(message(content))).isEqualTo(content);
+    }
+
+    @Test
+    void longContentIsCutWithEllipsis() {
+        String content = "б".repeat(ConversationSummaryRepository.SNIPPET_LENGTH + 1);
+
+        assertThat(ChatService.snippet(message(content)))
+                .isEqualTo("б".repeat(ConversationSummaryRepository.SNIPPET_LENGTH) + "…");
+    }
+
+    @Test
+    void lengthIsCountedInCharactersLikePostgresLeft() {
+        // Эмодзи — пара суррогатов в Java, но один символ для LEFT/char_length
+        String content = "😀".repeat(ConversationSummaryRepository.SNIPPET_LENGTH);
+
+        assertThat(ChatService.snippet(message(content))).isEqualTo(content);
+        assertThat(ChatService.snippet(message(content + "😀")))
+                .isEqualTo(content + "…");
+    }
+
+    private static Message message(String content) {
+        Message message = new Message();
+        message.setContent(content);
+        return message;
+    }
+}
@@ -0,0 +1,87 @@
+package com.psychology.service;
+
+import com.psychology.event.SessionChangedEvent;
+import com.psychology.model.entity.Session;
+import com.psychology.repository.SessionRepository;
+import com.psychology.scheduler.TimingWheel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SessionReminderServiceTest {
+
+    private SessionReminderService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SessionReminderService(mock(SessionRepository.class), mock(NotificationService.class));
+        ReflectionTestUtils.setField(service, "tickSeconds", 30L);
+        ReflectionTestUtils.setField(service, "wheelSize", 512);
+        // Горизонт с запасом, чтобы в колесо попадали оба напоминания
+        ReflectionTestUtils.setField(service, "horizonHours", 48L);
+        ReflectionTestUtils.setField(service, "graceMinutes", 15L);
+        service.init();
+    }
+
+    @Test
+    void schedulesBothRemindersForNewSession() {
+        service.onSessionChanged(event(LocalDateTime.now().plusHours(30), Session.SessionStatus.SCHEDULED));
+
+        assertThat(wheel().size()).isEqualTo(2);
+    }
+
+    @Test
+    void rescheduleMovesRemindersInsteadOfDuplicating() {
+        LocalDateTime now = LocalDateTime.now();
+        service.onSessionChanged(event(now.plusHours(30), Session.SessionStatus.SCHEDULED));
+        service.onSessionChanged(event(now.plusHours(40), Session.SessionStatus.SCHEDULED));
+
+        assertThat(wheel().size()).isEqualTo(2);
+        // Прежнее напоминание за 24 часа (now + 6h) больше не срабатывает
+        assertThat(wheel().advance(epochMs(now.plusHours(7)))).isEmpty();
+        assertThat(wheel().advance(epochMs(now.plusHours(16).plusMinutes(1)))).hasSize(1);
+    }
+
+    @Test
+    void cancelledSessionRemovesReminders() {
+        LocalDateTime scheduledAt = LocalDateTime.now().plusHours(30);
+        service.onSessionChanged(event(scheduledAt, Session.SessionStatus.SCHEDULED));
+        service.onSessionChanged(event(scheduledAt, Session.SessionStatus.CANCELLED));
+
+        assertThat(wheel().size()).isZero();
+    }
+
+    @Test
+    void sessionMovedIntoPastRemovesReminders() {
+        service.onSessionChanged(event(LocalDateTime.now().plusHours(30), Session.SessionStatus.SCHEDULED));
+        service.onSessionChanged(event(LocalDateTime.now().minusHours(1), Session.SessionStatus.SCHEDULED));
+
+        assertThat(wheel().size()).isZero();
+    }
+
+    @Test
+    void skipsReminderWhoseTimeHasLongPassed() {
+        // За 24 часа — уже давно прошло, за 1 час — еще впереди
+        service.onSessionChanged(event(LocalDateTime.now().plusHours(3), Session.SessionStatus.SCHEDULED));
+
+        assertThat(wheel().size()).isEqualTo(1);
+    }
+
+    private TimingWheel<?> wheel() {
+        return (TimingWheel<?>) ReflectionTestUtils.getField(service, "wheel");
+    }
+
+    private static SessionChangedEvent event(LocalDateTime scheduledAt, Session.SessionStatus status) {
+        return new SessionChangedEvent(1L, 10L, 20L, scheduledAt, status);
+    }
+
+    private static long epochMs(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,44 @@
+package com.psychology.websocket;
+
+import com.psychology.dto.ChatDTO;
+import com.psychology.model.entity.Client;
+import com.psychology.ratelimiting.RateLimitDecision;
+import com.psychology.ratelimiting.RateLimitPolicies;
+import com.psychology.ratelimiting.RateLimiter;
+import com.psychology.service.ChatService;
+import com.psychology.service.NotificationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebSocketChatControllerTest {
+
+    private final ChatService chatService = mock(ChatService.class);
+    private final ClusterMessagingService messagingService = mock(ClusterMessagingService.class);
+    private final RateLimiter rateLimiter = mock(RateLimiter.class);
+    private final WebSocketChatController controller = new WebSocketChatController(
+            chatService, mock(NotificationService.class), messagingService, rateLimiter);
+
+    @Test
+    void limitedSendReportsErrorToSender() {
+        Client sender = new Client();
+        sender.setId(5L);
+        when(rateLimiter.check(RateLimitPolicies.CHAT_SEND, "user:5")).thenReturn(RateLimitDecision.reject(2500));
+
+        controller.sendMessage(new ChatDTO.SendMessageRequest(), new UsernamePasswordAuthenticationToken(sender, null, List.of()));
+
+        verify(messagingService).convertAndSend("/user/5/queue/errors",
+                new WebSocketChatController.ErrorMessage("RATE_LIMITED",
+                        "Rate limit exceeded. Please try again later.", 3));
+        verify(chatService, never()).sendMessage(any(), any());
+        verify(messagingService, never()).convertAndSend(eq("/user/5/queue/messages"), any());
+    }
+}